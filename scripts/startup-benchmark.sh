@@ -0,0 +1,95 @@
+#!/usr/bin/env bash
+#
+# Measures cold start as seen by the autoscaler: time from JVM launch to the first successful login,
+# and resident memory at that moment, for three startup modes:
+#
+#   default  plain jar, default profile
+#   fast     fast profile (lazy init, no schema diffing, no desktop probing)
+#   aot-cds  fast profile + Spring AOT + an AppCDS archive from a training run
+#
+# Needs JDK 21, curl and the database from application.properties with the schema already in place
+# (the fast profile does not create it). Override the connection with SPRING_DATASOURCE_* variables.
+#
+# Linux only (reads /proc). Usage: scripts/startup-benchmark.sh [runs-per-mode] [port]
+# Set MAVEN=mvn to build without the wrapper.
+
+set -euo pipefail
+
+RUNS=${1:-5}
+PORT=${2:-18080}
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+WORK="$ROOT/target/startup-benchmark"
+APP="$WORK/app"
+ARCHIVE="$WORK/app.jsa"
+EMAIL="startup-benchmark@example.com"
+PASSWORD="startupBenchmark123"
+BASE_URL="http://localhost:$PORT"
+
+mode_options() {
+  case "$1" in
+    default) echo "" ;;
+    fast)    echo "-Dspring.profiles.active=fast" ;;
+    aot-cds) echo "-Dspring.profiles.active=fast -Dspring.aot.enabled=true -XX:SharedArchiveFile=$ARCHIVE" ;;
+  esac
+}
+
+now_ms() {
+  echo $(( $(date +%s%N) / 1000000 ))
+}
+
+login_status() {
+  curl -s -o /dev/null -w '%{http_code}' -X POST "$BASE_URL/api/auth/login" \
+    -H 'Content-Type: application/json' \
+    -d "{\"email\":\"$EMAIL\",\"password\":\"$PASSWORD\"}" || true
+}
+
+stop_app() {
+  kill "$1" 2>/dev/null || true
+  wait "$1" 2>/dev/null || true
+}
+
+echo "Building with Spring AOT ..."
+(cd "$ROOT" && ${MAVEN:-./mvnw} -q -B -Paot -DskipTests package)
+JAR=$(ls "$ROOT"/target/*.jar | grep -v plain | head -n 1)
+rm -rf "$WORK" && mkdir -p "$WORK"
+java -Djarmode=tools -jar "$JAR" extract --destination "$APP" > /dev/null
+APP_JAR="$APP/$(basename "$JAR")"
+
+echo "Training run for the AppCDS archive ..."
+# exits right after the context refresh, dumping the classes loaded up to that point
+java -XX:ArchiveClassesAtExit="$ARCHIVE" -Dspring.context.exit=onRefresh \
+  $(mode_options fast) -Dspring.aot.enabled=true -jar "$APP_JAR" --server.port="$PORT" \
+  > "$WORK/training.log" 2>&1
+
+echo "Registering the benchmark user ..."
+java $(mode_options fast) -jar "$APP_JAR" --server.port="$PORT" > "$WORK/setup.log" 2>&1 &
+SETUP_PID=$!
+until curl -s -o /dev/null "$BASE_URL/actuator/health"; do sleep 0.2; done
+curl -s -o /dev/null -X POST "$BASE_URL/api/auth/register" -H 'Content-Type: application/json' \
+  -d "{\"firstName\":\"Startup\",\"lastName\":\"Benchmark\",\"email\":\"$EMAIL\",\"password\":\"$PASSWORD\"}"
+stop_app "$SETUP_PID"
+
+printf '\n%-8s %6s %22s %14s\n' mode runs "first login ms (median)" "RSS MB (median)"
+for mode in default fast aot-cds; do
+  times=()
+  rss=()
+  for run in $(seq 1 "$RUNS"); do
+    start=$(now_ms)
+    # shellcheck disable=SC2046
+    java $(mode_options "$mode") -jar "$APP_JAR" --server.port="$PORT" > "$WORK/$mode-$run.log" 2>&1 &
+    pid=$!
+    until [ "$(login_status)" = "200" ]; do
+      if ! kill -0 "$pid" 2>/dev/null; then
+        echo "$mode run $run exited early, see $WORK/$mode-$run.log" >&2
+        exit 1
+      fi
+      sleep 0.02
+    done
+    times+=($(( $(now_ms) - start )))
+    rss+=($(( $(awk '/VmRSS/ {print $2}' "/proc/$pid/status") / 1024 )))
+    stop_app "$pid"
+  done
+  median_time=$(printf '%s\n' "${times[@]}" | sort -n | sed -n "$(( (RUNS + 1) / 2 ))p")
+  median_rss=$(printf '%s\n' "${rss[@]}" | sort -n | sed -n "$(( (RUNS + 1) / 2 ))p")
+  printf '%-8s %6d %22d %14d\n' "$mode" "$RUNS" "$median_time" "$median_rss"
+done
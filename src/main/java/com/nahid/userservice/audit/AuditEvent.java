@@ -0,0 +1,30 @@
+package com.nahid.userservice.audit;
+
+import lombok.Getter;
+
+/**
+ * One slot of the {@link AuditRingBuffer}. Slots are allocated once and overwritten in place, so sinks
+ * must copy what they need before returning from {@link AuditSink#write(AuditEvent)}.
+ */
+@Getter
+public final class AuditEvent {
+
+    private AuditEventType type;
+    /** 0 when the user is not known, e.g. for a failed login. */
+    private long userId;
+    /** Email the event was recorded for, may be {@code null}. */
+    private String subject;
+    private long timestamp;
+
+    void set(AuditEventType type, long userId, String subject, long timestamp) {
+        this.type = type;
+        this.userId = userId;
+        this.subject = subject;
+        this.timestamp = timestamp;
+    }
+
+    void clear() {
+        // do not keep emails reachable longer than needed
+        subject = null;
+    }
+}
@@ -0,0 +1,9 @@
+package com.nahid.userservice.audit;
+
+public enum AuditEventType {
+    LOGIN_SUCCESS,
+    LOGIN_FAILURE,
+    REFRESH,
+    LOGOUT,
+    LOGOUT_ALL
+}
@@ -0,0 +1,156 @@
+package com.nahid.userservice.audit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Audit trail of authentication events. Request threads only write the event into a preallocated slot of
+ * an {@link AuditRingBuffer}; a single consumer thread drains it into the {@link AuditSink}s. When the
+ * buffer is full the configured {@link BackPressurePolicy} decides between dropping (counted in
+ * {@code audit.events.dropped}) and waiting. Without any sink enabled, events are not recorded at all.
+ */
+@Component
+@Slf4j
+public class AuditLog {
+
+    private static final int DRAIN_BATCH = 256;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final List<AuditSink> sinks;
+    private final MeterRegistry meterRegistry;
+    private final Counter dropped;
+    private final Consumer<AuditEvent> dispatcher = this::dispatch;
+
+    @Value("${app.audit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.audit.buffer-size:8192}")
+    private int bufferSize;
+
+    @Value("${app.audit.back-pressure:DROP}")
+    private BackPressurePolicy backPressure;
+
+    @Value("${app.audit.shutdown-timeout:5000}")
+    private long shutdownTimeoutMillis;
+
+    private AuditRingBuffer buffer;
+    private volatile boolean running;
+    private Thread consumerThread;
+
+    public AuditLog(List<AuditSink> sinks, MeterRegistry meterRegistry) {
+        this.sinks = sinks;
+        this.meterRegistry = meterRegistry;
+        this.dropped = Counter.builder("audit.events.dropped")
+                .description("Audit events discarded because the buffer was full")
+                .register(meterRegistry);
+    }
+
+    public void loginSucceeded(long userId, String email) {
+        publish(AuditEventType.LOGIN_SUCCESS, userId, email);
+    }
+
+    public void loginFailed(String email) {
+        publish(AuditEventType.LOGIN_FAILURE, 0, email);
+    }
+
+    public void refreshed(long userId, String email) {
+        publish(AuditEventType.REFRESH, userId, email);
+    }
+
+    public void loggedOut(long userId, String email) {
+        publish(AuditEventType.LOGOUT, userId, email);
+    }
+
+    public void loggedOutEverywhere(long userId, String email) {
+        publish(AuditEventType.LOGOUT_ALL, userId, email);
+    }
+
+    private void publish(AuditEventType type, long userId, String subject) {
+        if (!running) {
+            if (enabled && !sinks.isEmpty()) {
+                dropped.increment();
+            }
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (backPressure == BackPressurePolicy.BLOCK) {
+            buffer.publish(type, userId, subject, now);
+        } else if (!buffer.tryPublish(type, userId, subject, now)) {
+            dropped.increment();
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        if (sinks.isEmpty()) {
+            log.info("No audit sink enabled (app.audit.file.enabled, app.audit.table.enabled), events are not recorded");
+            return;
+        }
+        buffer = new AuditRingBuffer(bufferSize);
+        Gauge.builder("audit.buffer.backlog", buffer, AuditRingBuffer::backlog)
+                .description("Audit events waiting to be written")
+                .register(meterRegistry);
+        running = true;
+        consumerThread = new Thread(this::run, "audit-log-consumer");
+        consumerThread.setDaemon(true);
+        consumerThread.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (consumerThread != null) {
+            consumerThread.join(shutdownTimeoutMillis);
+        }
+    }
+
+    private void run() {
+        while (running || buffer.backlog() > 0) {
+            int drained = buffer.drain(dispatcher, DRAIN_BATCH);
+            if (drained == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            } else if (drained < DRAIN_BATCH) {
+                // caught up: make what was written visible before waiting for more
+                for (AuditSink sink : sinks) {
+                    try {
+                        sink.flush();
+                    } catch (RuntimeException e) {
+                        log.warn("Audit sink {} failed to flush: {}", sink.getClass().getSimpleName(), e.getMessage());
+                    }
+                }
+            }
+        }
+        for (AuditSink sink : sinks) {
+            try {
+                sink.close();
+            } catch (RuntimeException e) {
+                log.warn("Audit sink {} failed to close: {}", sink.getClass().getSimpleName(), e.getMessage());
+            }
+        }
+    }
+
+    private void dispatch(AuditEvent event) {
+        for (AuditSink sink : sinks) {
+            try {
+                sink.write(event);
+            } catch (RuntimeException e) {
+                // one broken sink must neither stall the buffer nor starve the others
+                log.warn("Audit sink {} failed to write: {}", sink.getClass().getSimpleName(), e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.nahid.userservice.audit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Bounded multi-producer, single-consumer ring of preallocated {@link AuditEvent} slots. Producers claim a
+ * sequence with one CAS, fill the slot in place and publish it; nothing is allocated and no lock is taken.
+ * The consumer reads slots in sequence order and releases them in batches.
+ */
+public final class AuditRingBuffer {
+
+    private static final int BLOCK_SPINS = 100;
+    private static final long BLOCK_PARK_NANOS = 50_000;
+
+    private final AuditEvent[] slots;
+    // sequence last published into each slot; the consumer only reads a slot once it holds the expected one
+    private final AtomicLongArray published;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong();
+    // every sequence below this has been drained and its slot may be reused
+    private volatile long consumed;
+
+    public AuditRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        slots = new AuditEvent[size];
+        published = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            slots[i] = new AuditEvent();
+            published.set(i, -1);
+        }
+        mask = size - 1;
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+
+    /**
+     * Publishes an event, or returns {@code false} right away if the buffer is full.
+     */
+    public boolean tryPublish(AuditEventType type, long userId, String subject, long timestamp) {
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (sequence - consumed >= slots.length) {
+                return false;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+        publish(sequence, type, userId, subject, timestamp);
+        return true;
+    }
+
+    /**
+     * Publishes an event, waiting for the consumer to free a slot if the buffer is full.
+     */
+    public void publish(AuditEventType type, long userId, String subject, long timestamp) {
+        long sequence = claimed.getAndIncrement();
+        int spins = 0;
+        while (sequence - consumed >= slots.length) {
+            if (++spins < BLOCK_SPINS) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(BLOCK_PARK_NANOS);
+            }
+        }
+        publish(sequence, type, userId, subject, timestamp);
+    }
+
+    /**
+     * Hands up to {@code limit} published events to the handler in order and returns how many were drained.
+     * Must only be called from the consumer thread, and the handler must not throw.
+     */
+    public int drain(Consumer<AuditEvent> handler, int limit) {
+        long sequence = consumed;
+        int count = 0;
+        while (count < limit) {
+            int index = (int) sequence & mask;
+            if (published.get(index) != sequence) {
+                break;
+            }
+            AuditEvent event = slots[index];
+            handler.accept(event);
+            event.clear();
+            sequence++;
+            count++;
+        }
+        if (count > 0) {
+            consumed = sequence;
+        }
+        return count;
+    }
+
+    /**
+     * Events claimed but not drained yet, including those still being written by their producer.
+     */
+    public long backlog() {
+        return Math.max(0, claimed.get() - consumed);
+    }
+
+    private void publish(long sequence, AuditEventType type, long userId, String subject, long timestamp) {
+        int index = (int) sequence & mask;
+        slots[index].set(type, userId, subject, timestamp);
+        published.lazySet(index, sequence);
+    }
+}
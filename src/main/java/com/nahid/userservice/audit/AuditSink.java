@@ -0,0 +1,21 @@
+package com.nahid.userservice.audit;
+
+/**
+ * Destination of audit events. Called from the single audit consumer thread only.
+ */
+public interface AuditSink {
+
+    /**
+     * Records one event. The event is reused after this call returns.
+     */
+    void write(AuditEvent event);
+
+    /**
+     * Called when the buffer has been drained, to make buffered writes visible.
+     */
+    void flush();
+
+    default void close() {
+        flush();
+    }
+}
@@ -0,0 +1,11 @@
+package com.nahid.userservice.audit;
+
+/**
+ * What a publisher does when the audit buffer is full.
+ */
+public enum BackPressurePolicy {
+    /** Discard the event and count it; the request is never slowed down. */
+    DROP,
+    /** Wait for the consumer to free a slot; no event is lost while the service is running. */
+    BLOCK
+}
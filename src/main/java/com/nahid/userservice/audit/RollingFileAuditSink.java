@@ -0,0 +1,144 @@
+package com.nahid.userservice.audit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Appends one line per event to a local file, e.g.
+ * {@code 2025-01-01T10:00:00.123Z LOGIN_FAILURE user=0 subject=john@example.com}. When the file reaches
+ * {@code max-size} it is renamed to {@code <path>.1}, older files shift up and the oldest beyond
+ * {@code max-history} is deleted.
+ */
+@Component
+@ConditionalOnProperty(name = "app.audit.file.enabled", havingValue = "true")
+@Slf4j
+public class RollingFileAuditSink implements AuditSink {
+
+    private final StringBuilder line = new StringBuilder(256);
+
+    @Value("${app.audit.file.path:/var/log/user-service/audit.log}")
+    private Path path;
+
+    @Value("${app.audit.file.max-size:10485760}")
+    private long maxSize;
+
+    @Value("${app.audit.file.max-history:10}")
+    private int maxHistory;
+
+    private OutputStream out;
+    private long size;
+
+    @Override
+    public void write(AuditEvent event) {
+        line.setLength(0);
+        DateTimeFormatter.ISO_INSTANT.formatTo(Instant.ofEpochMilli(event.getTimestamp()), line);
+        line.append(' ').append(event.getType())
+                .append(" user=").append(event.getUserId())
+                .append(" subject=");
+        appendEscaped(event.getSubject());
+        line.append('\n');
+
+        byte[] bytes = line.toString().getBytes(StandardCharsets.UTF_8);
+        try {
+            if (out == null) {
+                open();
+            } else if (size + bytes.length > maxSize) {
+                rotate();
+            }
+            out.write(bytes);
+            size += bytes.length;
+        } catch (IOException e) {
+            // the file is reopened on the next event
+            log.warn("Could not write audit event to {}: {}", path, e.getMessage());
+            closeQuietly();
+        }
+    }
+
+    @Override
+    public void flush() {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.flush();
+        } catch (IOException e) {
+            log.warn("Could not flush audit log {}: {}", path, e.getMessage());
+            closeQuietly();
+        }
+    }
+
+    @Override
+    public void close() {
+        flush();
+        closeQuietly();
+    }
+
+    private void appendEscaped(String subject) {
+        if (subject == null) {
+            line.append('-');
+            return;
+        }
+        // a subject must never be able to forge a line of its own
+        for (int i = 0; i < subject.length(); i++) {
+            char c = subject.charAt(i);
+            line.append(Character.isISOControl(c) || c == ' ' ? '_' : c);
+        }
+    }
+
+    private void open() throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        out = new BufferedOutputStream(Files.newOutputStream(path,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE), 64 * 1024);
+        size = Files.size(path);
+    }
+
+    private void rotate() throws IOException {
+        out.close();
+        out = null;
+        if (maxHistory > 0) {
+            Files.deleteIfExists(rotated(maxHistory));
+            for (int i = maxHistory - 1; i >= 1; i--) {
+                Path source = rotated(i);
+                if (Files.exists(source)) {
+                    Files.move(source, rotated(i + 1), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            Files.move(path, rotated(1), StandardCopyOption.REPLACE_EXISTING);
+        } else {
+            Files.delete(path);
+        }
+        open();
+    }
+
+    private Path rotated(int index) {
+        return Paths.get(path + "." + index);
+    }
+
+    private void closeQuietly() {
+        try {
+            if (out != null) {
+                out.close();
+            }
+        } catch (IOException e) {
+            log.debug("Closing audit log {} failed: {}", path, e.getMessage());
+        }
+        out = null;
+    }
+}
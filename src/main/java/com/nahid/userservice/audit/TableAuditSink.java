@@ -0,0 +1,111 @@
+package com.nahid.userservice.audit;
+
+import com.nahid.userservice.datasource.ConnectionPool;
+import com.nahid.userservice.datasource.UsePool;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Arrays;
+
+/**
+ * Copies audit events into {@code audit_events} with one batched INSERT per {@code batch-size} events or
+ * per drained buffer, on the background pool. Subjects are cut to the column width, since a failed login
+ * records whatever email was submitted and one overlong value would fail the whole batch. A failed batch is
+ * logged and dropped; it is only kept elsewhere if {@code app.audit.file.enabled} is on as well.
+ */
+@Component
+@ConditionalOnProperty(name = "app.audit.table.enabled", havingValue = "true")
+@UsePool(ConnectionPool.BACKGROUND)
+@RequiredArgsConstructor
+@Slf4j
+public class TableAuditSink implements AuditSink {
+
+    private static final String INSERT =
+            "INSERT INTO audit_events (occurred_at, event_type, user_id, subject) VALUES (?, ?, ?, ?)";
+    /** Width of {@code audit_events.subject}. */
+    static final int MAX_SUBJECT_LENGTH = 255;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.audit.table.batch-size:500}")
+    private int batchSize;
+
+    private AuditEventType[] types;
+    private long[] userIds;
+    private String[] subjects;
+    private long[] timestamps;
+    private int count;
+
+    @PostConstruct
+    public void init() {
+        types = new AuditEventType[batchSize];
+        userIds = new long[batchSize];
+        subjects = new String[batchSize];
+        timestamps = new long[batchSize];
+    }
+
+    @Override
+    public void write(AuditEvent event) {
+        types[count] = event.getType();
+        userIds[count] = event.getUserId();
+        subjects[count] = truncate(event.getSubject());
+        timestamps[count] = event.getTimestamp();
+        if (++count == batchSize) {
+            flush();
+        }
+    }
+
+    @Override
+    public void flush() {
+        if (count == 0) {
+            return;
+        }
+        int rows = count;
+        try {
+            jdbcTemplate.batchUpdate(INSERT, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement statement, int i) throws SQLException {
+                    statement.setTimestamp(1, new Timestamp(timestamps[i]));
+                    statement.setString(2, types[i].name());
+                    if (userIds[i] != 0) {
+                        statement.setLong(3, userIds[i]);
+                    } else {
+                        statement.setNull(3, Types.BIGINT);
+                    }
+                    statement.setString(4, subjects[i]);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return rows;
+                }
+            });
+        } catch (DataAccessException e) {
+            log.warn("Could not write {} audit events to the audit_events table: {}", rows, e.getMessage());
+        } finally {
+            Arrays.fill(subjects, 0, rows, null);
+            count = 0;
+        }
+    }
+
+    private static String truncate(String subject) {
+        if (subject == null || subject.length() <= MAX_SUBJECT_LENGTH) {
+            return subject;
+        }
+        // do not split a surrogate pair
+        int end = Character.isHighSurrogate(subject.charAt(MAX_SUBJECT_LENGTH - 1))
+                ? MAX_SUBJECT_LENGTH - 1 : MAX_SUBJECT_LENGTH;
+        return subject.substring(0, end);
+    }
+}
@@ -0,0 +1,160 @@
+package com.nahid.userservice.cache;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Cross-node cache invalidation over Postgres {@code LISTEN/NOTIFY}.
+ * <p>
+ * Events are sent with {@code pg_notify}, which joins the caller's transaction and is only delivered once
+ * it commits. They reach the local caches at the same point: after the caller's transaction commits, or right
+ * away outside a transaction, so a cache never reloads a change that is not yet visible or is rolled back.
+ * Every node keeps one dedicated connection, outside the pool, listening on the channel; after a reconnect
+ * all listeners are asked to resync.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CacheInvalidationBus {
+
+    private static final ResultSetExtractor<Void> IGNORE_RESULT = rs -> null;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSourceProperties dataSourceProperties;
+    // resolved lazily: listeners may themselves publish through this bus
+    private final ObjectProvider<CacheInvalidationListener> listenerProvider;
+
+    @Value("${app.cache.invalidation.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.cache.invalidation.channel:cache_invalidation}")
+    private String channel;
+
+    @Value("${app.cache.invalidation.poll-timeout:500}")
+    private int pollTimeoutMillis;
+
+    @Value("${app.cache.invalidation.reconnect-delay:2000}")
+    private long reconnectDelayMillis;
+
+    private volatile List<CacheInvalidationListener> listeners;
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    public void publish(InvalidationEvent event) {
+        if (enabled) {
+            jdbcTemplate.query("SELECT pg_notify(?, ?)", IGNORE_RESULT, channel, event.encode());
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch(event);
+                }
+            });
+        } else {
+            dispatch(event);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        if (!channel.matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalStateException("Invalid invalidation channel name: " + channel);
+        }
+        running = true;
+        listenerThread = new Thread(this::listen, "cache-invalidation-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(
+                    dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(),
+                    dataSourceProperties.determinePassword())) {
+
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                log.info("Listening for cache invalidations on channel '{}'", channel);
+                listeners().forEach(CacheInvalidationListener::onResync);
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollTimeoutMillis);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        receive(notification.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Cache invalidation connection lost, reconnecting in {} ms: {}", reconnectDelayMillis, e.getMessage());
+                try {
+                    Thread.sleep(reconnectDelayMillis);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void receive(String payload) {
+        try {
+            dispatch(InvalidationEvent.decode(payload));
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring cache invalidation: {}", e.getMessage());
+        }
+    }
+
+    private void dispatch(InvalidationEvent event) {
+        for (CacheInvalidationListener listener : listeners()) {
+            listener.onInvalidation(event);
+        }
+    }
+
+    private List<CacheInvalidationListener> listeners() {
+        List<CacheInvalidationListener> resolved = listeners;
+        if (resolved == null) {
+            resolved = listenerProvider.orderedStream().toList();
+            listeners = resolved;
+        }
+        return resolved;
+    }
+}
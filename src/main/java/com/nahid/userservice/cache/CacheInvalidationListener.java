@@ -0,0 +1,15 @@
+package com.nahid.userservice.cache;
+
+/**
+ * Implemented by node-local caches that must follow changes made on other nodes.
+ */
+public interface CacheInvalidationListener {
+
+    void onInvalidation(InvalidationEvent event);
+
+    /**
+     * Called after the invalidation channel was (re)connected. Events sent while disconnected are lost,
+     * so implementations must drop or reload everything they hold.
+     */
+    void onResync();
+}
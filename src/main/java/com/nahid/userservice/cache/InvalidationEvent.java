@@ -0,0 +1,54 @@
+package com.nahid.userservice.cache;
+
+/**
+ * Compact cache invalidation message exchanged between nodes, encoded as {@code <code>:<id>}.
+ */
+public record InvalidationEvent(Type type, long id) {
+
+    public enum Type {
+        /** Security-relevant user state changed; cached user entries must be reloaded. */
+        USER('U'),
+        /** One or more sessions (refresh tokens) of the user were revoked. */
+        SESSION('S'),
+        /** A user registered; the id carries the 64-bit hash of the email, never the email itself. */
+        REGISTRATION('R');
+
+        private final char code;
+
+        Type(char code) {
+            this.code = code;
+        }
+
+        static Type fromCode(char code) {
+            for (Type type : values()) {
+                if (type.code == code) {
+                    return type;
+                }
+            }
+            throw new IllegalArgumentException("Unknown invalidation event type: " + code);
+        }
+    }
+
+    public static InvalidationEvent user(long userId) {
+        return new InvalidationEvent(Type.USER, userId);
+    }
+
+    public static InvalidationEvent session(long userId) {
+        return new InvalidationEvent(Type.SESSION, userId);
+    }
+
+    public static InvalidationEvent registration(long emailHash) {
+        return new InvalidationEvent(Type.REGISTRATION, emailHash);
+    }
+
+    public String encode() {
+        return type.code + ":" + id;
+    }
+
+    public static InvalidationEvent decode(String payload) {
+        if (payload == null || payload.length() < 3 || payload.charAt(1) != ':') {
+            throw new IllegalArgumentException("Malformed invalidation payload: " + payload);
+        }
+        return new InvalidationEvent(Type.fromCode(payload.charAt(0)), Long.parseLong(payload, 2, payload.length(), 10));
+    }
+}
@@ -0,0 +1,95 @@
+package com.nahid.userservice.cache;
+
+import com.nahid.userservice.entity.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Node-local cache of users for the per-request lookup in the JWT filter. Entries are dropped on
+ * {@link InvalidationEvent.Type#USER} events; the TTL bounds staleness when the invalidation bus is off.
+ * Emails are keyed in lower case, as the repository matches them, so every casing of an address shares one
+ * entry and is evicted with it.
+ */
+@Component
+public class UserCache implements CacheInvalidationListener {
+
+    @Value("${app.cache.user.ttl:60000}")
+    private long ttlMillis;
+
+    @Value("${app.cache.user.max-size:10000}")
+    private int maxSize;
+
+    private final Map<String, Entry> byEmail = new ConcurrentHashMap<>();
+    private final Map<Long, String> emailById = new ConcurrentHashMap<>();
+
+    private record Entry(User user, long expiresAt) {
+    }
+
+    public Optional<User> getByEmail(String email) {
+        Entry entry = byEmail.get(key(email));
+        if (entry == null) {
+            return Optional.empty();
+        }
+        if (entry.expiresAt() < System.currentTimeMillis()) {
+            evict(entry.user().getId());
+            return Optional.empty();
+        }
+        return Optional.of(entry.user());
+    }
+
+    public Optional<User> getById(Long id) {
+        String email = emailById.get(id);
+        return email == null ? Optional.empty() : getByEmail(email);
+    }
+
+    public void put(User user) {
+        if (ttlMillis <= 0 || user.getId() == null) {
+            return;
+        }
+        if (byEmail.size() >= maxSize) {
+            long now = System.currentTimeMillis();
+            byEmail.values().removeIf(entry -> {
+                if (entry.expiresAt() >= now) {
+                    return false;
+                }
+                emailById.remove(entry.user().getId());
+                return true;
+            });
+            if (byEmail.size() >= maxSize) {
+                return;
+            }
+        }
+        String email = key(user.getEmail());
+        emailById.put(user.getId(), email);
+        byEmail.put(email, new Entry(user, System.currentTimeMillis() + ttlMillis));
+    }
+
+    public void evict(Long userId) {
+        String email = emailById.remove(userId);
+        if (email != null) {
+            byEmail.remove(key(email));
+        }
+    }
+
+    @Override
+    public void onInvalidation(InvalidationEvent event) {
+        if (event.type() == InvalidationEvent.Type.USER) {
+            evict(event.id());
+        }
+    }
+
+    @Override
+    public void onResync() {
+        byEmail.clear();
+        emailById.clear();
+    }
+
+    private static String key(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+}
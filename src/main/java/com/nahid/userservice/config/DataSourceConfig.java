@@ -0,0 +1,131 @@
+package com.nahid.userservice.config;
+
+import com.nahid.userservice.datasource.ConnectionPool;
+import com.nahid.userservice.datasource.PoolRoutingDataSource;
+import com.nahid.userservice.datasource.ReplicaHealthMonitor;
+import com.nahid.userservice.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Connection pools and routing.
+ * <p>
+ * Interactive, background and admin work each get their own Hikari pool (see {@code @UsePool}), so a
+ * maintenance job can never take connections from the request path. Each pool is a separate bean and
+ * shows up in the {@code hikaricp.*} metrics under its pool name.
+ * <p>
+ * When a replica is configured, read-only transactions (for example {@code @Transactional(readOnly = true)}
+ * and the read methods of Spring Data repositories called outside a transaction) go to it; everything else,
+ * including reads inside read-write transactions, stays on the primary. The lazy proxy defers fetching a
+ * physical connection until the transaction has marked it read-only and the pool binding is in place,
+ * which is what lets both routing decisions be made per transaction.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource interactiveDataSource(DataSourceProperties properties) {
+        return createPool(properties);
+    }
+
+    @Bean
+    @ConfigurationProperties("app.datasource.pools.background")
+    public HikariDataSource backgroundDataSource(DataSourceProperties properties) {
+        return createPool(properties);
+    }
+
+    // also runs the Flyway migrations, on plain connections rather than through the routing proxy
+    @Bean
+    @FlywayDataSource
+    @ConfigurationProperties("app.datasource.pools.admin")
+    public HikariDataSource adminDataSource(DataSourceProperties properties) {
+        return createPool(properties);
+    }
+
+    @Bean
+    public PoolRoutingDataSource poolRoutingDataSource(
+            @Qualifier("interactiveDataSource") DataSource interactiveDataSource,
+            @Qualifier("backgroundDataSource") DataSource backgroundDataSource,
+            @Qualifier("adminDataSource") DataSource adminDataSource
+    ) {
+        return new PoolRoutingDataSource(Map.of(
+                ConnectionPool.INTERACTIVE, interactiveDataSource,
+                ConnectionPool.BACKGROUND, backgroundDataSource,
+                ConnectionPool.ADMIN, adminDataSource));
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(
+            PoolRoutingDataSource poolRoutingDataSource,
+            ObjectProvider<ReplicaRoutingDataSource> replicaRoutingDataSource
+    ) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(poolRoutingDataSource);
+        replicaRoutingDataSource.ifAvailable(dataSource::setReadOnlyDataSource);
+        return dataSource;
+    }
+
+    // unpooled: the group-commit writer holds one dedicated connection that must not count against a pool
+    @Bean
+    @ConditionalOnProperty(name = "app.refresh-token.group-commit.enabled", havingValue = "true")
+    public DataSource groupCommitDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(SimpleDriverDataSource.class).build();
+    }
+
+    private static HikariDataSource createPool(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Configuration
+    @ConditionalOnProperty(name = "app.datasource.replica.enabled", havingValue = "true")
+    static class ReplicaConfig {
+
+        @Bean
+        @ConfigurationProperties("app.datasource.replica.hikari")
+        public HikariDataSource replicaDataSource(
+                DataSourceProperties properties,
+                @Value("${app.datasource.replica.url}") String url,
+                @Value("${app.datasource.replica.username:}") String username,
+                @Value("${app.datasource.replica.password:}") String password
+        ) {
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setJdbcUrl(url);
+            dataSource.setUsername(username.isEmpty() ? properties.determineUsername() : username);
+            dataSource.setPassword(password.isEmpty() ? properties.determinePassword() : password);
+            dataSource.setReadOnly(true);
+            return dataSource;
+        }
+
+        @Bean
+        public ReplicaHealthMonitor replicaHealthMonitor(
+                @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                @Value("${app.datasource.replica.max-lag:1000}") long maxLagMillis
+        ) {
+            return new ReplicaHealthMonitor(replicaDataSource, maxLagMillis);
+        }
+
+        @Bean
+        public ReplicaRoutingDataSource replicaRoutingDataSource(
+                PoolRoutingDataSource poolRoutingDataSource,
+                @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                ReplicaHealthMonitor replicaHealthMonitor
+        ) {
+            return new ReplicaRoutingDataSource(poolRoutingDataSource, replicaDataSource, replicaHealthMonitor);
+        }
+    }
+}
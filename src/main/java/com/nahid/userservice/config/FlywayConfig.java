@@ -0,0 +1,22 @@
+package com.nahid.userservice.config;
+
+import org.springframework.boot.autoconfigure.flyway.FlywayConfigurationCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Map;
+
+@Configuration
+public class FlywayConfig {
+
+    /**
+     * Session-level migration lock. With the default transactional lock, Flyway keeps a transaction open
+     * while it runs non-transactional migrations, and {@code CREATE INDEX CONCURRENTLY} waits for it forever.
+     * Set through Flyway's own key: {@code spring.flyway.postgresql.transactional-lock} does not reach the
+     * PostgreSQL extension with the Flyway version managed by Spring Boot 3.5.
+     */
+    @Bean
+    public FlywayConfigurationCustomizer sessionLevelMigrationLock() {
+        return configuration -> configuration.configuration(Map.of("flyway.postgresql.transactional.lock", "false"));
+    }
+}
@@ -0,0 +1,158 @@
+package com.nahid.userservice.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nahid.userservice.dto.request.AuthRequest;
+import com.nahid.userservice.dto.response.ApiResponse;
+import com.nahid.userservice.dto.response.AuthResponse;
+import com.nahid.userservice.entity.User;
+import com.nahid.userservice.enums.Role;
+import com.nahid.userservice.service.JwtService;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.NativeDetector;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the CPU-heavy request paths (PBKDF2 verification, JWT signing and parsing, JSON mapping) with a
+ * synthetic user before the node reports ready; Spring Boot publishes readiness only after all runners
+ * have returned. Nothing here touches the database.
+ * <p>
+ * Password verification runs first, {@code password-rounds} times and untimed: one PBKDF2 hash is a single
+ * loop of several hundred thousand HMAC iterations, so it is compiled within the first hash or two, and its
+ * duration varies too much to judge convergence by. The JVM does not say when a method reached C2, so the
+ * token and JSON rounds that follow end once a round is no slower than the best one so far by more than a
+ * tolerance and the JIT compiler was mostly idle during it, {@code stable-rounds} times in a row, or when
+ * the time budget is used up.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class JitWarmup implements ApplicationRunner {
+
+    private static final String PASSWORD = "warm-up-password";
+    private static final String REQUEST_JSON = "{\"email\":\"warmup@example.invalid\",\"password\":\"" + PASSWORD + "\"}";
+    // slower than the best round by more than this counts as still warming up
+    private static final double STABLE_TOLERANCE = 1.2;
+    // JIT compilation below this share of a round's time counts as the compiler having settled
+    private static final double COMPILER_QUIET_SHARE = 0.1;
+
+    private final PasswordEncoder passwordEncoder;
+    private final JwtService jwtService;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.warmup.time-budget:5000}")
+    private long timeBudgetMillis;
+
+    @Value("${app.warmup.password-rounds:3}")
+    private int passwordRounds;
+
+    @Value("${app.warmup.tokens-per-round:200}")
+    private int tokensPerRound;
+
+    @Value("${app.warmup.stable-rounds:3}")
+    private int stableRounds;
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        if (!enabled || NativeDetector.inNativeImage()) {
+            return;
+        }
+        CompilationMXBean compiler = ManagementFactory.getCompilationMXBean();
+        boolean compilerQuietKnown = compiler != null && compiler.isCompilationTimeMonitoringSupported();
+
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeBudgetMillis);
+        User user = syntheticUser();
+        int passwordChecks = 0;
+        while (passwordChecks < passwordRounds && System.nanoTime() < deadline) {
+            if (!passwordEncoder.matches(PASSWORD, user.getPassword())) {
+                throw new IllegalStateException("Warm-up password did not verify");
+            }
+            passwordChecks++;
+        }
+
+        long best = Long.MAX_VALUE;
+        int rounds = 0;
+        int stable = 0;
+        while (stable < stableRounds && System.nanoTime() < deadline) {
+            long compileTimeBefore = compilerQuietKnown ? compiler.getTotalCompilationTime() : 0;
+            long roundStart = System.nanoTime();
+            round(user);
+            long elapsed = System.nanoTime() - roundStart;
+            long compileTime = compilerQuietKnown ? compiler.getTotalCompilationTime() - compileTimeBefore : 0;
+            // compilation time is JVM-wide and in whole milliseconds, so other threads keep it from ever
+            // being exactly zero
+            boolean compilerQuiet = compileTime <= Math.max(1, TimeUnit.NANOSECONDS.toMillis(elapsed) * COMPILER_QUIET_SHARE);
+            log.debug("Warm-up round {}: {} ms, {} ms JIT compilation", rounds + 1,
+                    TimeUnit.NANOSECONDS.toMillis(elapsed), compileTime);
+            stable = compilerQuiet && elapsed <= best * STABLE_TOLERANCE ? stable + 1 : 0;
+            best = Math.min(best, elapsed);
+            rounds++;
+        }
+
+        long total = System.nanoTime() - start;
+        boolean converged = stable >= stableRounds;
+        Timer.builder("app.warmup")
+                .description("Time spent warming up the JIT before reporting ready")
+                .tag("outcome", converged ? "converged" : "budget")
+                .register(meterRegistry)
+                .record(total, TimeUnit.NANOSECONDS);
+        log.info("JIT warm-up {} after {} ms ({} password checks, {} rounds, fastest round {} ms)",
+                converged ? "converged" : "stopped at the time budget", TimeUnit.NANOSECONDS.toMillis(total),
+                passwordChecks, rounds, rounds == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(best));
+    }
+
+    private void round(User user) throws IOException {
+        for (int i = 0; i < tokensPerRound; i++) {
+            String accessToken = jwtService.generateAccessToken(user);
+            String refreshToken = jwtService.generateRefreshToken(user);
+            Claims claims = jwtService.extractAllClaims(accessToken);
+            if (!jwtService.isTokenValid(claims, user) || jwtService.extractAllClaims(refreshToken) == null) {
+                throw new IllegalStateException("Warm-up token did not validate");
+            }
+
+            AuthRequest request = objectMapper.readValue(REQUEST_JSON, AuthRequest.class);
+            ApiResponse<AuthResponse> response = ApiResponse.<AuthResponse>builder()
+                    .success(true)
+                    .message(request.getEmail())
+                    .data(AuthResponse.builder()
+                            .accessToken(accessToken)
+                            .refreshToken(refreshToken)
+                            .tokenType("Bearer")
+                            .expiresIn(claims.getExpiration().getTime())
+                            .build())
+                    .statusCode(200)
+                    .timestamp(Instant.now())
+                    .build();
+            objectMapper.writeValueAsBytes(response);
+        }
+    }
+
+    private User syntheticUser() {
+        return User.builder()
+                .id(Long.MAX_VALUE)
+                .email("warmup@example.invalid")
+                .password(passwordEncoder.encode(PASSWORD))
+                .firstName("Warm")
+                .lastName("Up")
+                .role(Role.USER)
+                .build();
+    }
+}
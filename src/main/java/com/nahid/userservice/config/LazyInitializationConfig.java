@@ -0,0 +1,37 @@
+package com.nahid.userservice.config;
+
+import jakarta.servlet.Filter;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Controller;
+import org.springframework.util.ClassUtils;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+
+/**
+ * Beans kept eager when {@code spring.main.lazy-initialization} is on (fast startup profile): controllers
+ * and filters, so their dependencies are ready before the first request instead of during it, and beans
+ * with {@code @Scheduled} methods, which are never scheduled if they are never created.
+ */
+@Configuration(proxyBeanMethods = false)
+public class LazyInitializationConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter requestPathAndScheduledBeans() {
+        return (beanName, beanDefinition, beanType) -> {
+            Class<?> type = ClassUtils.getUserClass(beanType);
+            return AnnotatedElementUtils.hasAnnotation(type, Controller.class)
+                    || AnnotatedElementUtils.hasAnnotation(type, ControllerAdvice.class)
+                    || Filter.class.isAssignableFrom(type)
+                    || hasScheduledMethods(type);
+        };
+    }
+
+    private static boolean hasScheduledMethods(Class<?> type) {
+        return !MethodIntrospector.selectMethods(type, (MethodIntrospector.MetadataLookup<Scheduled>) method ->
+                AnnotatedElementUtils.findMergedAnnotation(method, Scheduled.class)).isEmpty();
+    }
+}
@@ -0,0 +1,84 @@
+package com.nahid.userservice.config;
+
+import com.nahid.userservice.dto.request.AuthRequest;
+import com.nahid.userservice.dto.request.LogoutRequest;
+import com.nahid.userservice.dto.request.RefreshTokenRequest;
+import com.nahid.userservice.dto.request.RegisterRequest;
+import com.nahid.userservice.dto.request.UserBatchRequest;
+import com.nahid.userservice.dto.response.ApiResponse;
+import com.nahid.userservice.dto.response.AuthResponse;
+import com.nahid.userservice.dto.response.LogoutResponse;
+import com.nahid.userservice.dto.response.RegisterResponse;
+import com.nahid.userservice.dto.response.SessionPageResponse;
+import com.nahid.userservice.dto.response.SessionResponse;
+import com.nahid.userservice.dto.response.UserBatchResponse;
+import com.nahid.userservice.dto.response.UserResponse;
+import com.nahid.userservice.dto.response.UserSummaryResponse;
+import com.nahid.userservice.entity.RefreshToken;
+import com.nahid.userservice.entity.User;
+import com.nahid.userservice.util.contant.ExceptionMessageConstant;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+import java.util.List;
+
+/**
+ * Native image hints that Spring AOT cannot infer: types jjwt loads by name, the payloads nested in the
+ * generic {@link ApiResponse}, the error message constants, and the static resources of springdoc's Swagger UI.
+ */
+public class NativeRuntimeHints implements RuntimeHintsRegistrar {
+
+    // instantiated by jjwt-api through Classes.newInstance(String)
+    private static final List<String> JJWT_IMPL_TYPES = List.of(
+            "io.jsonwebtoken.impl.DefaultClaimsBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtHeaderBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+            "io.jsonwebtoken.impl.io.StandardCompressionAlgorithms",
+            "io.jsonwebtoken.impl.security.KeysBridge",
+            "io.jsonwebtoken.impl.security.JwksBridge",
+            "io.jsonwebtoken.impl.security.StandardCurves",
+            "io.jsonwebtoken.impl.security.StandardEncryptionAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardHashAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardKeyAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardKeyOperations",
+            "io.jsonwebtoken.impl.security.StandardSecureDigestAlgorithms");
+
+    // discovered through META-INF/services
+    private static final List<String> JJWT_JACKSON_TYPES = List.of(
+            "io.jsonwebtoken.jackson.io.JacksonSerializer",
+            "io.jsonwebtoken.jackson.io.JacksonDeserializer");
+
+    private static final Class<?>[] DTO_TYPES = {
+            AuthRequest.class, LogoutRequest.class, RefreshTokenRequest.class, RegisterRequest.class,
+            UserBatchRequest.class, ApiResponse.class, AuthResponse.class, LogoutResponse.class,
+            RegisterResponse.class, SessionPageResponse.class, SessionResponse.class, UserResponse.class,
+            UserBatchResponse.class, UserSummaryResponse.class};
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        for (String type : JJWT_IMPL_TYPES) {
+            hints.reflection().registerTypeIfPresent(classLoader, type,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+        for (String type : JJWT_JACKSON_TYPES) {
+            hints.reflection().registerTypeIfPresent(classLoader, type, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        }
+        hints.resources().registerPattern("META-INF/services/io.jsonwebtoken.*");
+
+        for (Class<?> entity : List.of(User.class, RefreshToken.class)) {
+            hints.reflection().registerType(entity, MemberCategory.DECLARED_FIELDS,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_DECLARED_METHODS);
+        }
+
+        // read by ApiResponseWriter to find the messages it pre-encodes
+        hints.reflection().registerType(ExceptionMessageConstant.class, MemberCategory.PUBLIC_FIELDS);
+
+        // Lombok-generated accessors and builders, for Jackson
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(), DTO_TYPES);
+
+        hints.resources().registerPattern("META-INF/resources/webjars/swagger-ui/**");
+    }
+}
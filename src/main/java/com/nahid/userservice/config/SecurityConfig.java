@@ -4,6 +4,7 @@ import com.nahid.userservice.security.AdvancedPasswordHasher;
 import com.nahid.userservice.security.CustomPasswordEncoder;
 import com.nahid.userservice.security.JwtAuthenticationFilter;
 import com.nahid.userservice.service.UserService;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -62,11 +63,18 @@ public class SecurityConfig {
 
                 // Configure authorization rules
                 .authorizeHttpRequests(auth -> auth
+                        // Completion of a streamed response (async dispatch); the request itself was authorized
+                        // already, and with stateless sessions there is no authentication left to check again
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         // Public endpoints
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/","/register","/login").permitAll()
                         .requestMatchers("/swagger-ui/**", "/v3/api-docs/**", "/swagger-ui.html").permitAll()
+                        .requestMatchers("/actuator/health/**").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
 
+                        .requestMatchers("/api/admin/**").hasRole("ADMIN")
+                        .requestMatchers("/api/users/batch").hasAnyRole("SERVICE", "ADMIN")
                         .requestMatchers("/users/**").authenticated()
                         .anyRequest().authenticated()
                 )
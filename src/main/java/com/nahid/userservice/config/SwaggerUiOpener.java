@@ -1,6 +1,7 @@
 package com.nahid.userservice.config;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.ApplicationListener;
 import org.springframework.stereotype.Component;
@@ -11,6 +12,7 @@ import java.net.URI;
 import java.net.URISyntaxException;
 
 @Component
+@ConditionalOnProperty(name = "app.swagger-ui.open-browser", havingValue = "true", matchIfMissing = true)
 public class SwaggerUiOpener implements ApplicationListener<ApplicationReadyEvent> {
 
     @Value("${server.port}")
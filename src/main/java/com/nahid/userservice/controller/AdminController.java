@@ -0,0 +1,108 @@
+package com.nahid.userservice.controller;
+
+import com.nahid.userservice.enums.ExportFormat;
+import com.nahid.userservice.service.UserExportService;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+@RestController
+@RequestMapping("api/admin")
+@RequiredArgsConstructor
+public class AdminController {
+
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    private final UserExportService userExportService;
+
+    @Value("${app.admin.export.timeout:3600000}")
+    private long exportTimeoutMillis;
+
+    /**
+     * Streams all users as NDJSON or CSV, gzip-compressed when the client accepts it. The body is written on
+     * an async thread, page by page, so the export size is not bounded by the heap. The export has its own
+     * async timeout; other async requests keep the default.
+     */
+    @GetMapping("/users/export")
+    public WebAsyncTask<Void> exportUsers(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            HttpServletResponse response
+    ) {
+        ExportFormat exportFormat = ExportFormat.from(format);
+        boolean gzip = acceptsGzip(acceptEncoding);
+
+        response.setHeader(HttpHeaders.CONTENT_TYPE, exportFormat.contentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("users." + exportFormat.extension())
+                .build()
+                .toString());
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        return new WebAsyncTask<>(exportTimeoutMillis, () -> {
+            OutputStream out = response.getOutputStream();
+            // sync flush, so every page reaches the client instead of waiting in the deflater
+            OutputStream target = gzip ? new GZIPOutputStream(out, GZIP_BUFFER_SIZE, true) : out;
+            userExportService.export(exportFormat, target);
+            if (target instanceof GZIPOutputStream gzipStream) {
+                gzipStream.finish();
+            }
+            out.flush();
+            return null;
+        });
+    }
+
+    /**
+     * Whether {@code Accept-Encoding} allows gzip: listed with a non-zero quality value, or not listed while
+     * {@code *} has one. {@code gzip;q=0} refuses it.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzip = null;
+        Double wildcard = null;
+        for (String element : acceptEncoding.split(",")) {
+            String[] parts = element.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            double quality = quality(parts);
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzip = gzip == null ? quality : Math.max(gzip, quality);
+            } else if (coding.equals("*")) {
+                wildcard = quality;
+            }
+        }
+        Double allowed = gzip != null ? gzip : wildcard;
+        return allowed != null && allowed > 0;
+    }
+
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.length() > 2 && parameter.substring(0, 2).equalsIgnoreCase("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    // a malformed weight is treated as a refusal
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
@@ -6,6 +6,7 @@ import com.nahid.userservice.dto.response.ApiResponse;
 import com.nahid.userservice.dto.response.AuthResponse;
 import com.nahid.userservice.dto.response.LogoutResponse;
 import com.nahid.userservice.dto.response.RegisterResponse;
+import com.nahid.userservice.idempotency.IdempotencyService;
 import com.nahid.userservice.service.AuthService;
 import com.nahid.userservice.service.UserService;
 import com.nahid.userservice.util.helper.ApiResponseUtil;
@@ -26,15 +27,25 @@ public class AuthController {
 
     private final AuthService authService;
     private final UserService userService;
+    private final IdempotencyService idempotencyService;
 
+    // retries carrying the same Idempotency-Key replay the first result instead of hashing the password again
     @PostMapping("/register")
-    public ResponseEntity<ApiResponse<RegisterResponse>> register(@Valid @RequestBody RegisterRequest request) {
-        return ApiResponseUtil.success(authService.register(request), ApiResponseConstant.USER_REGISTERED_SUCCESSFULLY, HttpStatus.CREATED);
+    public ResponseEntity<ApiResponse<RegisterResponse>> register(
+            @Valid @RequestBody RegisterRequest request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        RegisterResponse response = idempotencyService.execute(idempotencyKey, "register", request,
+                RegisterResponse.class, () -> authService.register(request));
+        return ApiResponseUtil.success(response, ApiResponseConstant.USER_REGISTERED_SUCCESSFULLY, HttpStatus.CREATED);
     }
 
     @PostMapping("/login")
-    public ResponseEntity<ApiResponse<AuthResponse>> login(@Valid @RequestBody AuthRequest request) {
-        return ApiResponseUtil.success(authService.login(request), ApiResponseConstant.LOGIN_SUCCESSFUL);
+    public ResponseEntity<ApiResponse<AuthResponse>> login(
+            @Valid @RequestBody AuthRequest request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        AuthResponse response = idempotencyService.execute(idempotencyKey, "login", request,
+                AuthResponse.class, () -> authService.login(request));
+        return ApiResponseUtil.success(response, ApiResponseConstant.LOGIN_SUCCESSFUL);
     }
 
     @PostMapping("/refresh")
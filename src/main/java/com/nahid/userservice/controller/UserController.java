@@ -1,19 +1,32 @@
 package com.nahid.userservice.controller;
 
+import com.nahid.userservice.dto.request.UserBatchRequest;
 import com.nahid.userservice.dto.response.ApiResponse;
+import com.nahid.userservice.dto.response.LogoutResponse;
+import com.nahid.userservice.dto.response.SessionPageResponse;
+import com.nahid.userservice.dto.response.UserBatchResponse;
 import com.nahid.userservice.dto.response.UserResponse;
 import com.nahid.userservice.service.UserService;
 import com.nahid.userservice.util.helper.ApiResponseUtil;
 import com.nahid.userservice.util.contant.ApiResponseConstant;
 
 
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
 
 @RestController
 @RequestMapping("api/users")
@@ -24,8 +37,38 @@ public class UserController {
     private final UserService userService;
 
     @GetMapping("/me")
-    public ResponseEntity<ApiResponse<UserResponse>> getCurrentUser() {
-        UserResponse userResponse = userService.getMe();
-        return ApiResponseUtil.success(userResponse, ApiResponseConstant.USER_PROFILE_FETCHED);
+    public ResponseEntity<ApiResponse<UserResponse>> getCurrentUser(WebRequest webRequest) {
+        return ApiResponseUtil.conditionalSuccess(webRequest, userService.getMeETag(), userService::getMe,
+                ApiResponseConstant.USER_PROFILE_FETCHED);
+    }
+
+    @GetMapping("/batch")
+    public ResponseEntity<ApiResponse<UserBatchResponse>> getUsers(@RequestParam List<Long> ids) {
+        return ApiResponseUtil.success(userService.getUsers(ids), ApiResponseConstant.USERS_FETCHED);
+    }
+
+    // POST for id lists too long for a query string
+    @PostMapping("/batch")
+    public ResponseEntity<ApiResponse<UserBatchResponse>> getUsers(@Valid @RequestBody UserBatchRequest request) {
+        return ApiResponseUtil.success(userService.getUsers(request.getIds()), ApiResponseConstant.USERS_FETCHED);
+    }
+
+    @GetMapping("/me/sessions")
+    public ResponseEntity<ApiResponse<SessionPageResponse>> getMySessions(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        return ApiResponseUtil.success(userService.getMySessions(cursor, size), ApiResponseConstant.SESSIONS_FETCHED);
+    }
+
+    @DeleteMapping("/me/sessions/{sessionId}")
+    public ResponseEntity<ApiResponse<Void>> revokeSession(@PathVariable Long sessionId) {
+        userService.revokeSession(sessionId);
+        return ApiResponseUtil.success(null, ApiResponseConstant.SESSION_REVOKED);
+    }
+
+    @DeleteMapping("/me/sessions")
+    public ResponseEntity<ApiResponse<LogoutResponse>> logoutEverywhere() {
+        return ApiResponseUtil.success(userService.logoutEverywhere(), ApiResponseConstant.ALL_SESSIONS_REVOKED);
     }
 }
\ No newline at end of file
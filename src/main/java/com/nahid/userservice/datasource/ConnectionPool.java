@@ -0,0 +1,13 @@
+package com.nahid.userservice.datasource;
+
+/**
+ * Separately sized connection pools. Work bound to one pool can never take connections from another.
+ */
+public enum ConnectionPool {
+    /** Latency-critical request path: login, refresh, per-request lookups. The default. */
+    INTERACTIVE,
+    /** Scheduled jobs and other maintenance. */
+    BACKGROUND,
+    /** Bulk and administrative operations. */
+    ADMIN
+}
@@ -0,0 +1,39 @@
+package com.nahid.userservice.datasource;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Applies {@link UsePool} bindings. Runs before the transaction interceptor so the pool is selected
+ * before a transaction asks for its connection.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ConnectionPoolAspect {
+
+    @Around("@annotation(com.nahid.userservice.datasource.UsePool) || @within(com.nahid.userservice.datasource.UsePool)")
+    public Object bindPool(ProceedingJoinPoint joinPoint) throws Throwable {
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        UsePool usePool = AnnotatedElementUtils.findMergedAnnotation(signature.getMethod(), UsePool.class);
+        if (usePool == null) {
+            usePool = AnnotatedElementUtils.findMergedAnnotation(joinPoint.getTarget().getClass(), UsePool.class);
+        }
+        if (usePool == null) {
+            return joinPoint.proceed();
+        }
+
+        ConnectionPool previous = ConnectionPoolContext.set(usePool.value());
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ConnectionPoolContext.restore(previous);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.nahid.userservice.datasource;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class ConnectionPoolContext {
+
+    private static final ThreadLocal<ConnectionPool> CURRENT = new ThreadLocal<>();
+
+    public static ConnectionPool current() {
+        ConnectionPool pool = CURRENT.get();
+        return pool != null ? pool : ConnectionPool.INTERACTIVE;
+    }
+
+    static ConnectionPool set(ConnectionPool pool) {
+        ConnectionPool previous = CURRENT.get();
+        CURRENT.set(pool);
+        return previous;
+    }
+
+    static void restore(ConnectionPool previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.nahid.userservice.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Routes each new connection to the pool bound to the current thread via {@link UsePool}.
+ */
+public class PoolRoutingDataSource extends AbstractRoutingDataSource {
+
+    public PoolRoutingDataSource(Map<ConnectionPool, DataSource> pools) {
+        setTargetDataSources(Map.copyOf(pools));
+        setDefaultTargetDataSource(pools.get(ConnectionPool.INTERACTIVE));
+        setLenientFallback(false);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ConnectionPoolContext.current();
+    }
+}
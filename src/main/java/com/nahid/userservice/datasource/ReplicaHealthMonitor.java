@@ -0,0 +1,67 @@
+package com.nahid.userservice.datasource;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Periodically probes the replica and decides whether read-only work may be routed to it.
+ * A replica is used only while it answers and its replay lag stays within {@code maxLagMillis}.
+ */
+@RequiredArgsConstructor
+@Slf4j
+public class ReplicaHealthMonitor {
+
+    // A replica that has replayed everything it received is current, even if the primary is idle
+    private static final String LAG_QUERY = """
+            SELECT CASE
+                WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0)
+            END
+            """;
+
+    private final DataSource replicaDataSource;
+    private final long maxLagMillis;
+
+    private volatile boolean available = true;
+    private volatile long lagMillis;
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    public long getLagMillis() {
+        return lagMillis;
+    }
+
+    public void markUnavailable(SQLException cause) {
+        if (available) {
+            log.warn("Replica unavailable, routing reads to primary: {}", cause.getMessage());
+        }
+        available = false;
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.health-check-interval:5000}")
+    public void check() {
+        try (Connection connection = replicaDataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(LAG_QUERY)) {
+            rs.next();
+            lagMillis = rs.getLong(1);
+            boolean healthy = lagMillis <= maxLagMillis;
+            if (healthy != available) {
+                log.info("Replica {} (lag {} ms, max {} ms)", healthy ? "back in rotation" : "lagging, routing reads to primary",
+                        lagMillis, maxLagMillis);
+            }
+            available = healthy;
+        } catch (SQLException e) {
+            markUnavailable(e);
+        }
+    }
+}
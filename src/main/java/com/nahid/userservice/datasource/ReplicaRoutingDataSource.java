@@ -0,0 +1,46 @@
+package com.nahid.userservice.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * Target for read-only transactions: the replica while it is healthy, otherwise the primary.
+ * A failed replica connection falls back to the primary immediately instead of failing the request.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final String REPLICA = "replica";
+    private static final String PRIMARY = "primary";
+
+    private final DataSource primary;
+    private final ReplicaHealthMonitor healthMonitor;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaHealthMonitor healthMonitor) {
+        this.primary = primary;
+        this.healthMonitor = healthMonitor;
+        setTargetDataSources(Map.of(REPLICA, replica, PRIMARY, primary));
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return healthMonitor.isAvailable() ? REPLICA : PRIMARY;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!healthMonitor.isAvailable()) {
+            return primary.getConnection();
+        }
+        try {
+            return super.getConnection();
+        } catch (SQLException e) {
+            healthMonitor.markUnavailable(e);
+            return primary.getConnection();
+        }
+    }
+}
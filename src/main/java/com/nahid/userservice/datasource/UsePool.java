@@ -0,0 +1,19 @@
+package com.nahid.userservice.datasource;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Binds a bean or method to a {@link ConnectionPool}. The binding applies to connections opened while the
+ * method runs; a transaction that is already active keeps the connection it started with.
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface UsePool {
+
+    ConnectionPool value();
+}
@@ -2,9 +2,11 @@ package com.nahid.userservice.dto.response;
 
 import lombok.Builder;
 import lombok.Data;
+import lombok.extern.jackson.Jacksonized;
 
 @Data
 @Builder
+@Jacksonized
 public class AuthResponse {
     private String accessToken;
     private String refreshToken;
@@ -3,9 +3,11 @@ package com.nahid.userservice.dto.response;
 import com.nahid.userservice.enums.Role;
 import lombok.Builder;
 import lombok.Data;
+import lombok.extern.jackson.Jacksonized;
 
 @Data
 @Builder
+@Jacksonized
 public class RegisterResponse {
     private Long id;
     private String firstName;
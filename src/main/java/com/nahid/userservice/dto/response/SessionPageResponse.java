@@ -0,0 +1,14 @@
+package com.nahid.userservice.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class SessionPageResponse {
+    private List<SessionResponse> sessions;
+    // Opaque keyset cursor for the next page, null on the last page
+    private String nextCursor;
+}
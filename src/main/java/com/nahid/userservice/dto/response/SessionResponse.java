@@ -0,0 +1,14 @@
+package com.nahid.userservice.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class SessionResponse {
+    private Long id;
+    private LocalDateTime createdAt;
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,15 @@
+package com.nahid.userservice.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class UserBatchResponse {
+    // In the order the ids were requested, duplicates removed
+    private List<UserSummaryResponse> users;
+    // Requested ids with no matching user
+    private List<Long> notFound;
+}
@@ -0,0 +1,13 @@
+package com.nahid.userservice.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class UserSummaryResponse {
+    private Long id;
+    private String email;
+    private String firstName;
+    private String lastName;
+}
@@ -6,7 +6,10 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "refresh_tokens")
+@Table(name = "refresh_tokens", indexes = {
+        // keyset pagination of a user's sessions
+        @Index(name = "idx_refresh_tokens_user_created", columnList = "user_id, created_at")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -18,9 +21,13 @@ public class RefreshToken {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(unique = true, nullable = false)
+    @Column(unique = true, nullable = false, length = 512)
     private String token;
 
+    // jti of the token, also carried by the access tokens issued with it; null for tokens issued before V8
+    @Column(length = 36)
+    private String sessionId;
+
     @Column(nullable = false)
     private LocalDateTime expiryDate;
 
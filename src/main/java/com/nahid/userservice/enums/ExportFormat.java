@@ -0,0 +1,34 @@
+package com.nahid.userservice.enums;
+
+import com.nahid.userservice.exception.InvalidRequestException;
+import com.nahid.userservice.util.contant.ExceptionMessageConstant;
+
+public enum ExportFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    public static ExportFormat from(String value) {
+        for (ExportFormat format : values()) {
+            if (format.extension.equalsIgnoreCase(value)) {
+                return format;
+            }
+        }
+        throw new InvalidRequestException(String.format(ExceptionMessageConstant.UNSUPPORTED_EXPORT_FORMAT, value));
+    }
+}
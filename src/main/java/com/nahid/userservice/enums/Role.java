@@ -2,5 +2,15 @@ package com.nahid.userservice.enums;
 
 public enum Role {
     USER,
-    ADMIN
+    ADMIN,
+    // other services in the cluster calling internal endpoints
+    SERVICE;
+
+    /**
+     * Bit used for this role in the compact access-token profile. New roles must be appended
+     * so that masks in already issued tokens keep their meaning.
+     */
+    public int mask() {
+        return 1 << ordinal();
+    }
 }
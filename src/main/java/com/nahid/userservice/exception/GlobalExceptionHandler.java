@@ -1,8 +1,8 @@
 package com.nahid.userservice.exception;
 
-import com.nahid.userservice.dto.response.ApiResponse;
-import com.nahid.userservice.util.helper.ApiResponseUtil;
 import com.nahid.userservice.util.contant.ExceptionMessageConstant;
+import com.nahid.userservice.util.helper.ApiResponseWriter;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -12,17 +12,25 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.AsyncRequestNotUsableException;
 
 import java.nio.file.AccessDeniedException;
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * Error bodies are written by {@link ApiResponseWriter}, which serves the fixed messages from pre-encoded
+ * templates; they are the bulk of the traffic when credentials are being guessed.
+ */
 @RestControllerAdvice
+@RequiredArgsConstructor
 @Slf4j
 public class GlobalExceptionHandler {
 
+    private final ApiResponseWriter apiResponseWriter;
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
-    public ResponseEntity<ApiResponse<Map<String, String>>> handleValidationErrors(
+    public ResponseEntity<byte[]> handleValidationErrors(
             MethodArgumentNotValidException ex
     ) {
         log.debug("Validation error: {}", ex.getMessage());
@@ -34,7 +42,7 @@ public class GlobalExceptionHandler {
             fieldErrors.put(fieldName, errorMessage);
         });
 
-        return ApiResponseUtil.failureWithHttpStatus(
+        return apiResponseWriter.failure(
                 ExceptionMessageConstant.VALIDATION_FAILED,
                 HttpStatus.BAD_REQUEST,
                 fieldErrors
@@ -43,51 +51,75 @@ public class GlobalExceptionHandler {
 
 
     @ExceptionHandler(AuthenticationException.class)
-    public ResponseEntity<ApiResponse<Object>> handleAuthenticationException(
+    public ResponseEntity<byte[]> handleAuthenticationException(
             AuthenticationException ex
 
     ) {
         log.debug("Authentication error: {}", ex.getMessage());
-        return ApiResponseUtil.failureWithHttpStatus(ex.getMessage(), HttpStatus.UNAUTHORIZED);
+        return apiResponseWriter.failure(ex.getMessage(), HttpStatus.UNAUTHORIZED);
     }
 
 
     @ExceptionHandler({BadCredentialsException.class})
-    public ResponseEntity<ApiResponse<Object>> handleSpringAuthenticationException(
+    public ResponseEntity<byte[]> handleSpringAuthenticationException(
             Exception ex,
             WebRequest request
     ) {
         log.debug("Spring Security authentication error: {}", ex.getMessage());
-        return ApiResponseUtil.failureWithHttpStatus(ExceptionMessageConstant.INVALID_CREDENTIALS, HttpStatus.UNAUTHORIZED);
+        return apiResponseWriter.failure(ExceptionMessageConstant.INVALID_CREDENTIALS, HttpStatus.UNAUTHORIZED);
     }
 
     @ExceptionHandler(AccessDeniedException.class)
-    public ResponseEntity<ApiResponse<Object>> handleAccessDeniedException(
+    public ResponseEntity<byte[]> handleAccessDeniedException(
             AccessDeniedException ex,
             WebRequest request
     ) {
         log.debug("Access denied: {}", ex.getMessage());
-        return ApiResponseUtil.failureWithHttpStatus(ExceptionMessageConstant.ACCESS_DENIED, HttpStatus.FORBIDDEN);
+        return apiResponseWriter.failure(ExceptionMessageConstant.ACCESS_DENIED, HttpStatus.FORBIDDEN);
     }
 
 
     @ExceptionHandler(ResourceNotFoundException.class)
-    public ResponseEntity<ApiResponse<Object>> handleResourceNotFoundException(
+    public ResponseEntity<byte[]> handleResourceNotFoundException(
             ResourceNotFoundException ex,
             WebRequest request
     ) {
         log.debug("Resource not found: {}", ex.getMessage());
-        return ApiResponseUtil.failureWithHttpStatus(ex.getMessage(), HttpStatus.NOT_FOUND);
+        return apiResponseWriter.failure(ex.getMessage(), HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler(InvalidRequestException.class)
+    public ResponseEntity<byte[]> handleInvalidRequestException(
+            InvalidRequestException ex,
+            WebRequest request
+    ) {
+        log.debug("Invalid request: {}", ex.getMessage());
+        return apiResponseWriter.failure(ex.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<byte[]> handleServiceUnavailableException(
+            ServiceUnavailableException ex,
+            WebRequest request
+    ) {
+        log.warn("Service unavailable: {}", ex.getMessage());
+        return apiResponseWriter.failure(ex.getMessage(), HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    // The client of a streamed response went away; there is nobody to send an error body to
+    @ExceptionHandler(AsyncRequestNotUsableException.class)
+    public void handleAsyncRequestNotUsableException(AsyncRequestNotUsableException ex) {
+        log.debug("Client disconnected: {}", ex.getMessage());
     }
 
     @ExceptionHandler(Exception.class)
-    public ResponseEntity<ApiResponse<Object>> handleGenericException(
+    public ResponseEntity<byte[]> handleGenericException(
             Exception ex,
             WebRequest request
 
     ) {
         log.error("Unexpected error: {}", ex.getMessage(), ex);
-        return ApiResponseUtil.failureWithHttpStatus(
+        return apiResponseWriter.failure(
                 ExceptionMessageConstant.UNEXPECTED_ERROR,
                 HttpStatus.INTERNAL_SERVER_ERROR
         );
@@ -0,0 +1,7 @@
+package com.nahid.userservice.exception;
+
+public class InvalidRequestException extends RuntimeException {
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,174 @@
+package com.nahid.userservice.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nahid.userservice.exception.InvalidRequestException;
+import com.nahid.userservice.exception.ServiceUnavailableException;
+import com.nahid.userservice.util.contant.ExceptionMessageConstant;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * {@code Idempotency-Key} handling. The first request with a key runs; duplicates that arrive while it runs
+ * on this node wait for its result, and later ones get the result from the {@link IdempotencyStore} for
+ * {@code ttl}, without running again. Failures are shared with the requests already waiting but never
+ * stored, so a retry after a failure runs again.
+ * <p>
+ * A key only replays for the request it was first used with: the request's JSON form, password included,
+ * is fingerprinted with an HMAC keyed by {@code jwt.secret}, and a key sent with a different request is
+ * rejected. Every field that decides the result must therefore be serialized.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final IdempotencyStore idempotencyStore;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Flight> flights = new ConcurrentHashMap<>();
+
+    @Value("${app.idempotency.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.idempotency.ttl:60000}")
+    private long ttlMillis;
+
+    @Value("${app.idempotency.wait-timeout:10000}")
+    private long waitTimeoutMillis;
+
+    @Value("${jwt.secret}")
+    private String secret;
+
+    private record Flight(String fingerprint, CompletableFuture<StoredResult> result) {
+    }
+
+    /**
+     * Runs {@code action} for {@code request} unless a request with the same {@code key} for the same
+     * {@code operation} is running or has completed within the TTL, in which case its result is returned.
+     * Without a key, {@code action} simply runs.
+     */
+    public <T> T execute(String key, String operation, Object request, Class<T> type, Supplier<T> action) {
+        if (!enabled || key == null) {
+            return action.get();
+        }
+        validate(key);
+        String storeKey = operation + ":" + key;
+        String fingerprint = fingerprint(operation, request);
+
+        Flight flight = new Flight(fingerprint, new CompletableFuture<>());
+        Flight existing = flights.putIfAbsent(storeKey, flight);
+        if (existing != null) {
+            checkFingerprint(existing.fingerprint(), fingerprint);
+            log.debug("Idempotent {} waiting for the running request with the same key", operation);
+            record(operation, "joined");
+            return read(follow(existing), type);
+        }
+        try {
+            StoredResult stored = idempotencyStore.get(storeKey);
+            if (stored != null) {
+                checkFingerprint(stored.fingerprint(), fingerprint);
+                flight.result().complete(stored);
+                log.debug("Idempotent {} replayed from the store", operation);
+                record(operation, "replayed");
+                return read(stored, type);
+            }
+            T result = action.get();
+            StoredResult completed = new StoredResult(fingerprint, write(result));
+            // stored before the flight is removed, so a duplicate always finds one or the other
+            idempotencyStore.put(storeKey, completed, ttlMillis);
+            flight.result().complete(completed);
+            record(operation, "executed");
+            return result;
+        } catch (RuntimeException e) {
+            flight.result().completeExceptionally(e);
+            throw e;
+        } finally {
+            flights.remove(storeKey, flight);
+        }
+    }
+
+    private StoredResult follow(Flight flight) {
+        try {
+            return flight.result().get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Idempotent request failed", e.getCause());
+        } catch (TimeoutException e) {
+            // the original is still running: the client may retry with the same key
+            throw new ServiceUnavailableException(ExceptionMessageConstant.CONCURRENT_REQUEST_PENDING, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException(ExceptionMessageConstant.CONCURRENT_REQUEST_PENDING, e);
+        }
+    }
+
+    private static void validate(String key) {
+        boolean valid = !key.isEmpty() && key.length() <= MAX_KEY_LENGTH
+                && key.chars().allMatch(c -> c >= 0x20 && c < 0x7f);
+        if (!valid) {
+            throw new InvalidRequestException(ExceptionMessageConstant.INVALID_IDEMPOTENCY_KEY);
+        }
+    }
+
+    private static void checkFingerprint(String expected, String actual) {
+        if (!expected.equals(actual)) {
+            throw new InvalidRequestException(ExceptionMessageConstant.IDEMPOTENCY_KEY_REUSED);
+        }
+    }
+
+    private void record(String operation, String outcome) {
+        meterRegistry.counter("idempotency.requests", "operation", operation, "outcome", outcome).increment();
+    }
+
+    private String fingerprint(String operation, Object request) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM));
+            mac.update(operation.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(mac.doFinal(write(request)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(HMAC_ALGORITHM + " not available", e);
+        }
+    }
+
+    private byte[] write(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + value.getClass().getSimpleName(), e);
+        }
+    }
+
+    private <T> T read(StoredResult stored, Class<T> type) {
+        try {
+            return objectMapper.readValue(stored.body(), type);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read stored idempotent result", e);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.nahid.userservice.idempotency;
+
+/**
+ * Completed results of requests sent with an {@code Idempotency-Key}. The default is
+ * {@link InMemoryIdempotencyStore}; with {@code app.idempotency.store} set to anything else, a bean of this
+ * type backed by shared storage must be provided, so that a retry reaching another node is replayed too.
+ * Results hold live tokens, so such a store should keep them encrypted or at least off shared caches.
+ * Implementations are called concurrently.
+ */
+public interface IdempotencyStore {
+
+    /**
+     * Returns the result stored under {@code key}, or {@code null} if there is none or it has expired.
+     */
+    StoredResult get(String key);
+
+    /**
+     * Stores {@code result} under {@code key} for {@code ttlMillis}. A store that is full may drop it.
+     */
+    void put(String key, StoredResult result, long ttlMillis);
+}
@@ -0,0 +1,50 @@
+package com.nahid.userservice.idempotency;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps results on this node for their TTL, at most {@code max-entries} of them. When full, new results are
+ * not stored; their retries run again as if they had no key.
+ */
+@Component
+@ConditionalOnProperty(name = "app.idempotency.store", havingValue = "memory", matchIfMissing = true)
+@Slf4j
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    @Value("${app.idempotency.memory.max-entries:100000}")
+    private int maxEntries;
+
+    private record Entry(StoredResult result, long expiresAt) {
+    }
+
+    @Override
+    public StoredResult get(String key) {
+        Entry entry = entries.get(key);
+        return entry == null || entry.expiresAt() - System.nanoTime() < 0 ? null : entry.result();
+    }
+
+    @Override
+    public void put(String key, StoredResult result, long ttlMillis) {
+        if (entries.size() >= maxEntries) {
+            log.debug("Idempotent result not stored, {} results held", entries.size());
+            return;
+        }
+        entries.put(key, new Entry(result, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ttlMillis)));
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.ttl:60000}")
+    public void evictExpired() {
+        long now = System.nanoTime();
+        entries.values().removeIf(entry -> entry.expiresAt() - now < 0);
+    }
+}
@@ -0,0 +1,7 @@
+package com.nahid.userservice.idempotency;
+
+/**
+ * Result of an idempotent request: the fingerprint of the request that produced it and the result as JSON.
+ */
+public record StoredResult(String fingerprint, byte[] body) {
+}
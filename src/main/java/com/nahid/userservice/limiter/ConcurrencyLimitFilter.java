@@ -0,0 +1,233 @@
+package com.nahid.userservice.limiter;
+
+import com.nahid.userservice.security.JwtAuthenticationFilter;
+import com.nahid.userservice.service.JwtService;
+import com.nahid.userservice.util.contant.ExceptionMessageConstant;
+import com.nahid.userservice.util.helper.ApiResponseWriter;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Adaptive concurrency limit for the whole servlet stack, applied before Spring Security so rejected
+ * requests never cost a user lookup. The limit follows observed latency (see
+ * {@link GradientConcurrencyLimit}); each {@link RequestPriority} may only use its share of it.
+ * <p>
+ * Authenticated reads are only {@link RequestPriority#PROTECTED} once their access token's signature and
+ * expiry check out, so a made-up bearer token cannot claim the reserved share. The verified claims are
+ * handed to {@link JwtAuthenticationFilter} through a request attribute, so the token is parsed once.
+ */
+@Component
+@ConditionalOnProperty(name = "app.concurrency-limit.enabled", havingValue = "true")
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER - 10)
+@RequiredArgsConstructor
+@Slf4j
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final String HEALTH_PATH = "/actuator/health";
+    private static final String AUTH_PATH = "/api/auth/";
+
+    private final MeterRegistry meterRegistry;
+    private final ApiResponseWriter apiResponseWriter;
+    private final JwtService jwtService;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Map<RequestPriority, Double> shares = new EnumMap<>(RequestPriority.class);
+    private final Map<RequestPriority, Counter> rejections = new EnumMap<>(RequestPriority.class);
+
+    @Value("${app.concurrency-limit.initial-limit:100}")
+    private int initialLimit;
+
+    @Value("${app.concurrency-limit.min-limit:10}")
+    private int minLimit;
+
+    @Value("${app.concurrency-limit.max-limit:1000}")
+    private int maxLimit;
+
+    @Value("${app.concurrency-limit.rtt-tolerance:1.5}")
+    private double rttTolerance;
+
+    @Value("${app.concurrency-limit.smoothing:0.2}")
+    private double smoothing;
+
+    @Value("${app.concurrency-limit.window:250}")
+    private long windowMillis;
+
+    @Value("${app.concurrency-limit.window-min-samples:10}")
+    private int windowMinSamples;
+
+    @Value("${app.concurrency-limit.share.normal:0.8}")
+    private double normalShare;
+
+    @Value("${app.concurrency-limit.share.sheddable:0.5}")
+    private double sheddableShare;
+
+    @Value("${app.concurrency-limit.sheddable-paths:/api/auth/login,/api/auth/register}")
+    private List<String> sheddablePaths;
+
+    @Value("${app.concurrency-limit.rejection-status:503}")
+    private int rejectionStatus;
+
+    private GradientConcurrencyLimit limit;
+
+    @PostConstruct
+    public void init() {
+        limit = new GradientConcurrencyLimit(initialLimit, minLimit, maxLimit, rttTolerance, smoothing,
+                TimeUnit.MILLISECONDS.toNanos(windowMillis), windowMinSamples);
+        shares.put(RequestPriority.PROTECTED, 1.0);
+        shares.put(RequestPriority.NORMAL, normalShare);
+        shares.put(RequestPriority.SHEDDABLE, sheddableShare);
+
+        Gauge.builder("http.concurrency.limit", limit, GradientConcurrencyLimit::limit)
+                .description("Current adaptive concurrency limit")
+                .register(meterRegistry);
+        Gauge.builder("http.concurrency.in_flight", inFlight, AtomicInteger::get)
+                .description("Requests currently admitted by the concurrency limiter")
+                .register(meterRegistry);
+        for (RequestPriority priority : RequestPriority.values()) {
+            rejections.put(priority, Counter.builder("http.concurrency.rejected")
+                    .description("Requests rejected by the concurrency limiter")
+                    .tag("priority", priority.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        // health probes must answer even when the service is saturated
+        return request.getRequestURI().startsWith(HEALTH_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        RequestPriority priority = classify(request);
+        int admitted = tryAcquire(priority);
+        if (admitted < 0) {
+            rejections.get(priority).increment();
+            reject(response);
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean completed = false;
+        try {
+            filterChain.doFilter(request, response);
+            completed = true;
+        } finally {
+            if (completed && request.isAsyncStarted()) {
+                // the response is written later on another thread, so the request holds its slot until
+                // then; how long that takes depends on the async work, so it is not a latency sample
+                request.getAsyncContext().addListener(new ReleaseOnComplete());
+            } else {
+                inFlight.decrementAndGet();
+                // a request that failed with an exception says nothing reliable about latency
+                if (completed) {
+                    long now = System.nanoTime();
+                    limit.onSample(now, now - start, admitted);
+                }
+            }
+        }
+    }
+
+    RequestPriority classify(HttpServletRequest request) {
+        String path = request.getServletPath();
+        if (sheddablePaths.contains(path)) {
+            return RequestPriority.SHEDDABLE;
+        }
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        boolean read = "GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod());
+        if (read && authorization != null && authorization.startsWith("Bearer ") && !path.startsWith(AUTH_PATH)
+                && verify(request, authorization.substring(7))) {
+            return RequestPriority.PROTECTED;
+        }
+        return RequestPriority.NORMAL;
+    }
+
+    private boolean verify(HttpServletRequest request, String token) {
+        try {
+            Claims claims = jwtService.extractAllClaims(token);
+            request.setAttribute(JwtAuthenticationFilter.VERIFIED_CLAIMS_ATTRIBUTE, claims);
+            return true;
+        } catch (JwtException | IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns the in-flight count including this request, or -1 if the priority's share is used up.
+     */
+    private int tryAcquire(RequestPriority priority) {
+        int allowed = Math.max(1, (int) (limit.limit() * shares.get(priority)));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                return -1;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        byte[] body = apiResponseWriter.failureBody(ExceptionMessageConstant.SERVICE_OVERLOADED, rejectionStatus);
+        response.setStatus(rejectionStatus);
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private class ReleaseOnComplete implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            inFlight.decrementAndGet();
+        }
+
+        // onComplete follows a timeout or an error as well
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // listeners are dropped when async processing is restarted
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
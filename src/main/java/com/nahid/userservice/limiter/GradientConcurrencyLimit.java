@@ -0,0 +1,96 @@
+package com.nahid.userservice.limiter;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limit learned from latency, after the gradient algorithm of Netflix' concurrency-limits.
+ * Latency samples are averaged per window and compared with a slow moving average of past windows: while
+ * they agree the limit grows by about its square root per window, and when latency rises above
+ * {@code tolerance} times the long-term average the limit shrinks in proportion, by at most half.
+ */
+public final class GradientConcurrencyLimit {
+
+    private static final int LONG_WINDOW = 600;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+    private final long windowNanos;
+    private final int minWindowSamples;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile int limit;
+
+    // window state, guarded by lock
+    private long windowStart;
+    private long rttSum;
+    private int samples;
+    private int maxInFlight;
+    private double longRtt;
+    private double estimatedLimit;
+
+    public GradientConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double tolerance,
+                                    double smoothing, long windowNanos, int minWindowSamples) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+        this.windowNanos = windowNanos;
+        this.minWindowSamples = minWindowSamples;
+        this.limit = initialLimit;
+        this.estimatedLimit = initialLimit;
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    /**
+     * Records the latency of one completed request that started at {@code now - rttNanos} while
+     * {@code inFlight} requests (itself included) were running.
+     */
+    public void onSample(long now, long rttNanos, int inFlight) {
+        lock.lock();
+        try {
+            if (samples == 0) {
+                windowStart = now;
+            }
+            rttSum += rttNanos;
+            samples++;
+            maxInFlight = Math.max(maxInFlight, inFlight);
+            if (samples >= minWindowSamples && now - windowStart >= windowNanos) {
+                update((double) rttSum / samples, maxInFlight);
+                rttSum = 0;
+                samples = 0;
+                maxInFlight = 0;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void update(double shortRtt, int inFlight) {
+        if (longRtt == 0) {
+            longRtt = shortRtt;
+        } else {
+            longRtt += (shortRtt - longRtt) / LONG_WINDOW;
+            // after a slow period the baseline would stay inflated for a long time; bring it down faster
+            if (longRtt / shortRtt > 2) {
+                longRtt *= 0.95;
+            }
+        }
+
+        // little traffic says nothing about the limit; do not let it grow without being tested
+        if (inFlight < estimatedLimit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRtt / shortRtt));
+        double queueSize = Math.sqrt(estimatedLimit);
+        double target = estimatedLimit * gradient + queueSize;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit,
+                estimatedLimit * (1 - smoothing) + target * smoothing));
+        limit = (int) estimatedLimit;
+    }
+}
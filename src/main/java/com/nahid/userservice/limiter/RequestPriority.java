@@ -0,0 +1,14 @@
+package com.nahid.userservice.limiter;
+
+/**
+ * Priority class of a request. Each class may only fill its share of the concurrency limit, so under
+ * overload the lower classes are rejected first and the remaining capacity goes to the higher ones.
+ */
+public enum RequestPriority {
+    /** Token-authenticated reads: cheap and what most clients depend on. */
+    PROTECTED,
+    /** Everything not classified otherwise. */
+    NORMAL,
+    /** Expensive, retryable work such as password hashing on login and registration. */
+    SHEDDABLE
+}
@@ -0,0 +1,11 @@
+package com.nahid.userservice.mapper;
+
+import com.nahid.userservice.dto.response.UserSummaryResponse;
+import com.nahid.userservice.repository.projection.UserSummaryView;
+import org.mapstruct.Mapper;
+
+@Mapper(componentModel = "spring")
+public interface UserMapper {
+
+    UserSummaryResponse toSummary(UserSummaryView view);
+}
@@ -2,12 +2,15 @@ package com.nahid.userservice.repository;
 
 import com.nahid.userservice.entity.RefreshToken;
 import com.nahid.userservice.entity.User;
+import com.nahid.userservice.repository.projection.SessionView;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -21,7 +24,57 @@ public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long
 
     void deleteByToken(String token);
 
-    void deleteByExpiryDateBefore(LocalDateTime now);
+    // served by the partial idx_refresh_tokens_active_expiry index
+    @Modifying
+    @Query("DELETE FROM RefreshToken rt WHERE rt.revoked = false AND rt.expiryDate < :now")
+    int deleteExpiredActiveTokens(LocalDateTime now);
+
+    // served by the partial idx_refresh_tokens_revoked_expiry index
+    @Modifying
+    @Query("DELETE FROM RefreshToken rt WHERE rt.revoked = true AND rt.expiryDate < :now")
+    int deleteExpiredRevokedTokens(LocalDateTime now);
+
+    @Query("""
+            SELECT rt.id AS id, rt.createdAt AS createdAt, rt.expiryDate AS expiryDate
+            FROM RefreshToken rt
+            WHERE rt.user.id = :userId AND rt.revoked = false AND rt.expiryDate > :now
+            ORDER BY rt.createdAt DESC, rt.id DESC
+            """)
+    List<SessionView> findActiveSessions(Long userId, LocalDateTime now, Limit limit);
+
+    @Query("""
+            SELECT rt.id AS id, rt.createdAt AS createdAt, rt.expiryDate AS expiryDate
+            FROM RefreshToken rt
+            WHERE rt.user.id = :userId AND rt.revoked = false AND rt.expiryDate > :now
+              AND (rt.createdAt < :createdAt OR (rt.createdAt = :createdAt AND rt.id < :id))
+            ORDER BY rt.createdAt DESC, rt.id DESC
+            """)
+    List<SessionView> findActiveSessionsBefore(Long userId, LocalDateTime now, LocalDateTime createdAt, Long id, Limit limit);
 
+    @Modifying
+    @Query("UPDATE RefreshToken rt SET rt.revoked = true WHERE rt.user.id = :userId AND rt.revoked = false")
+    int revokeAllByUserId(Long userId);
+
+    // Keeps the newest maxActive active sessions of the user and deletes the rest, oldest first
+    @Modifying
+    @Query(value = """
+            DELETE FROM refresh_tokens WHERE id IN (
+                SELECT id FROM refresh_tokens
+                WHERE user_id = :userId AND revoked = false AND expiry_date > :now
+                ORDER BY created_at DESC, id DESC
+                OFFSET :maxActive
+            )
+            """, nativeQuery = true)
+    int deleteActiveSessionsBeyond(Long userId, int maxActive, LocalDateTime now);
 
+    // served by the partial idx_refresh_tokens_active_session index
+    @Query("""
+            SELECT COUNT(rt) > 0 FROM RefreshToken rt
+            WHERE rt.sessionId = :sessionId AND rt.revoked = false AND rt.expiryDate > :now
+            """)
+    boolean isSessionActive(String sessionId, LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE RefreshToken rt SET rt.revoked = true WHERE rt.id = :id AND rt.user.id = :userId AND rt.revoked = false")
+    int revokeByIdAndUserId(Long id, Long userId);
 }
\ No newline at end of file
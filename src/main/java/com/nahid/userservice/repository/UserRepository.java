@@ -1,12 +1,32 @@
 package com.nahid.userservice.repository;
 
 import com.nahid.userservice.entity.User;
+import com.nahid.userservice.repository.projection.UserSummaryView;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User,Long> {
 
+    // lower() on both sides so the lookups use the uk_users_email_lower index
+    @Query("SELECT u FROM User u WHERE lower(u.email) = lower(:email)")
     Optional<User> findByEmail(String email);
+
+    @Query("SELECT count(u) > 0 FROM User u WHERE lower(u.email) = lower(:email)")
     boolean existsByEmail(String email);
+
+    // projection: no entity is materialized and the password column is never read
+    @Query("SELECT u.id AS id, u.email AS email, u.firstName AS firstName, u.lastName AS lastName "
+            + "FROM User u WHERE u.id IN :ids")
+    List<UserSummaryView> findSummariesByIdIn(Collection<Long> ids);
+
+    // updated_at drives the incremental refresh of TokenVersionRegistry
+    @Modifying
+    @Query("UPDATE User u SET u.tokenVersion = u.tokenVersion + 1, u.updatedAt = :now WHERE u.id = :id")
+    int incrementTokenVersion(Long id, LocalDateTime now);
 }
@@ -0,0 +1,15 @@
+package com.nahid.userservice.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lightweight read model of an active refresh token, loaded without materializing the entity.
+ */
+public interface SessionView {
+
+    Long getId();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getExpiryDate();
+}
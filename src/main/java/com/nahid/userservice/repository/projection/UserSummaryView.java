@@ -0,0 +1,15 @@
+package com.nahid.userservice.repository.projection;
+
+/**
+ * Public identity of a user (no password, role or token state), loaded without materializing the entity.
+ */
+public interface UserSummaryView {
+
+    Long getId();
+
+    String getEmail();
+
+    String getFirstName();
+
+    String getLastName();
+}
@@ -0,0 +1,194 @@
+package com.nahid.userservice.security;
+
+import com.nahid.userservice.util.collection.BloomFilter;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.password.CompromisedPasswordChecker;
+import org.springframework.security.authentication.password.CompromisedPasswordDecision;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Offline lookup of passwords in a breach corpus such as Have I Been Pwned. The corpus is a file of raw
+ * 20-byte SHA-1 digests in ascending order; it is memory-mapped and binary-searched in place, so it costs
+ * page cache rather than heap. An optional Bloom filter in front answers most non-breached passwords
+ * without touching the file.
+ * <p>
+ * Convert the HIBP "ordered by hash" download with {@code cut -d: -f1 pwned-passwords-sha1.txt | xxd -r -p}.
+ */
+@Component
+@Slf4j
+public class BreachedPasswordChecker implements CompromisedPasswordChecker {
+
+    private static final int RECORD_SIZE = 20;
+    // largest whole number of records that fits in one mapping
+    private static final long RECORDS_PER_SEGMENT = Integer.MAX_VALUE / RECORD_SIZE;
+
+    private static final CompromisedPasswordDecision COMPROMISED = new CompromisedPasswordDecision(true);
+    private static final CompromisedPasswordDecision NOT_COMPROMISED = new CompromisedPasswordDecision(false);
+
+    private static final ThreadLocal<MessageDigest> SHA1 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 not available", e);
+        }
+    });
+
+    @Value("${app.security.breached-passwords.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.security.breached-passwords.file:}")
+    private String file;
+
+    @Value("${app.security.breached-passwords.bloom-filter.enabled:false}")
+    private boolean bloomFilterEnabled;
+
+    @Value("${app.security.breached-passwords.bloom-filter.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Value("${app.security.breached-passwords.bloom-filter.max-memory-bytes:268435456}")
+    private long bloomFilterMaxBytes;
+
+    // replaced as a whole when the file changes, so a lookup always sees one consistent corpus
+    private volatile Corpus corpus;
+
+    private record Corpus(MappedByteBuffer[] segments, long records, FileTime modified, BloomFilter front) {
+    }
+
+    @PostConstruct
+    public void init() {
+        if (enabled) {
+            load();
+        }
+    }
+
+    /**
+     * Re-maps the file when it was replaced, e.g. by a newer corpus download. Replace the file with a
+     * rename, never by rewriting it in place: the old mapping stays in use until the new one is ready.
+     */
+    @Scheduled(initialDelayString = "${app.security.breached-passwords.reload-interval:3600000}",
+            fixedDelayString = "${app.security.breached-passwords.reload-interval:3600000}")
+    public void reload() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            if (!Files.getLastModifiedTime(Path.of(file)).equals(corpus.modified())) {
+                load();
+            }
+        } catch (IOException | UncheckedIOException | IllegalStateException e) {
+            log.warn("Could not reload breached password file {}: {}", file, e.getMessage());
+        }
+    }
+
+    @Override
+    public CompromisedPasswordDecision check(String password) {
+        Corpus current = corpus;
+        if (current == null || password == null) {
+            return NOT_COMPROMISED;
+        }
+        byte[] digest = SHA1.get().digest(password.getBytes(StandardCharsets.UTF_8));
+        ByteBuffer key = ByteBuffer.wrap(digest);
+        long high = key.getLong(0);
+        long middle = key.getLong(8);
+        int low = key.getInt(16);
+
+        if (current.front() != null && !current.front().mightContainHash(high)) {
+            return NOT_COMPROMISED;
+        }
+        return contains(current, high, middle, low) ? COMPROMISED : NOT_COMPROMISED;
+    }
+
+    private static boolean contains(Corpus corpus, long high, long middle, int low) {
+        long from = 0;
+        long to = corpus.records() - 1;
+        while (from <= to) {
+            long mid = (from + to) >>> 1;
+            MappedByteBuffer segment = corpus.segments()[(int) (mid / RECORDS_PER_SEGMENT)];
+            int offset = (int) (mid % RECORDS_PER_SEGMENT) * RECORD_SIZE;
+            int cmp = Long.compareUnsigned(segment.getLong(offset), high);
+            if (cmp == 0) {
+                cmp = Long.compareUnsigned(segment.getLong(offset + 8), middle);
+            }
+            if (cmp == 0) {
+                cmp = Integer.compareUnsigned(segment.getInt(offset + 16), low);
+            }
+            if (cmp < 0) {
+                from = mid + 1;
+            } else if (cmp > 0) {
+                to = mid - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void load() {
+        Corpus loaded = open();
+        corpus = loaded;
+        if (bloomFilterEnabled) {
+            // a full pass over the file takes a while; lookups go to the file until the filter is ready,
+            // and the scheduler thread is not held up
+            Thread builder = new Thread(() -> installFront(loaded), "breached-password-bloom-filter");
+            builder.setDaemon(true);
+            builder.start();
+        }
+    }
+
+    private Corpus open() {
+        Path path = Path.of(file);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            FileTime modified = Files.getLastModifiedTime(path);
+            long size = channel.size();
+            if (size % RECORD_SIZE != 0) {
+                throw new IllegalStateException("Breached password file " + path
+                        + " is not a sequence of 20-byte SHA-1 digests (size " + size + ")");
+            }
+            long records = size / RECORD_SIZE;
+            int segmentCount = (int) ((records + RECORDS_PER_SEGMENT - 1) / RECORDS_PER_SEGMENT);
+            MappedByteBuffer[] segments = new MappedByteBuffer[segmentCount];
+            for (int i = 0; i < segmentCount; i++) {
+                long position = i * RECORDS_PER_SEGMENT * RECORD_SIZE;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(RECORDS_PER_SEGMENT * RECORD_SIZE, size - position));
+            }
+            log.info("Breached password file {} mapped: {} digests", path, records);
+            return new Corpus(segments, records, modified, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not map breached password file " + path, e);
+        }
+    }
+
+    private void installFront(Corpus loaded) {
+        long start = System.currentTimeMillis();
+        BloomFilter front = BloomFilter.create(loaded.records(), falsePositiveRate, bloomFilterMaxBytes);
+        for (MappedByteBuffer segment : loaded.segments()) {
+            for (int offset = 0; offset < segment.limit(); offset += RECORD_SIZE) {
+                // SHA-1 output is uniform, so its first 8 bytes serve as the Bloom hash directly
+                front.putHash(segment.getLong(offset));
+            }
+        }
+        // a reload in the meantime brings its own filter
+        if (corpus == loaded) {
+            corpus = new Corpus(loaded.segments(), loaded.records(), loaded.modified(), front);
+            log.info("Breached password Bloom filter built: {} bytes, {} hash functions in {} ms",
+                    front.sizeInBytes(), front.hashFunctions(), System.currentTimeMillis() - start);
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package com.nahid.userservice.security;
 
+import com.nahid.userservice.entity.User;
 import com.nahid.userservice.service.JwtService;
 import com.nahid.userservice.service.UserService;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -9,6 +11,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -25,8 +28,15 @@ import java.io.IOException;
 @Slf4j
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    /**
+     * Claims of the request's bearer token, set by a filter that already verified them.
+     */
+    public static final String VERIFIED_CLAIMS_ATTRIBUTE = JwtAuthenticationFilter.class.getName() + ".claims";
+
     private final JwtService jwtService;
     private final UserService userService;
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final SlidingTokenRenewer slidingTokenRenewer;
 
     @Override
     protected void doFilterInternal(
@@ -51,13 +61,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         try {
             final String jwt = authHeader.substring(7); // Remove "Bearer " prefix
-            final String userEmail = jwtService.extractUsername(jwt);
+            final Claims claims = request.getAttribute(VERIFIED_CLAIMS_ATTRIBUTE) instanceof Claims verified
+                    ? verified
+                    : jwtService.extractAllClaims(jwt);
+            final String subject = claims.getSubject();
 
-            if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            if (subject != null && SecurityContextHolder.getContext().getAuthentication() == null) {
 
-                UserDetails userDetails = userService.loadUserByUsername(userEmail);
+                UserDetails userDetails = jwtService.isCompactToken(claims)
+                        ? userService.loadUserById(Long.valueOf(subject))
+                        : userService.loadUserByUsername(subject);
 
-                if (jwtService.isTokenValid(jwt, userDetails)) {
+                if (jwtService.isTokenValid(claims, userDetails) && isCurrentVersion(claims, userDetails)) {
                     UsernamePasswordAuthenticationToken authToken =
                             new UsernamePasswordAuthenticationToken(
                                     userDetails,
@@ -68,9 +83,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
                     SecurityContextHolder.getContext().setAuthentication(authToken);
 
-                    log.debug("User {} authenticated successfully", userEmail);
+                    log.debug("User {} authenticated successfully", subject);
+
+                    String renewed = slidingTokenRenewer.renew(jwt, claims, userDetails);
+                    if (renewed != null) {
+                        response.setHeader(HttpHeaders.AUTHORIZATION, "Bearer " + renewed);
+                    }
                 } else {
-                    log.debug("Invalid JWT token for user: {}", userEmail);
+                    log.debug("Invalid JWT token for user: {}", subject);
                 }
             }
         } catch (JwtException e) {
@@ -81,4 +101,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    private boolean isCurrentVersion(Claims claims, UserDetails userDetails) {
+        return !(userDetails instanceof User user)
+                || tokenVersionRegistry.isCurrent(user.getId(), jwtService.extractTokenVersion(claims));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,123 @@
+package com.nahid.userservice.security;
+
+import com.nahid.userservice.repository.RefreshTokenRepository;
+import com.nahid.userservice.service.JwtService;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sliding renewal of access tokens. Once an authenticated request presents a token within {@code window}
+ * of its expiry, a new access token is issued so an active client never needs the refresh round trip.
+ * Each token is renewed at most once: its renewal is remembered until the token itself expires, and every
+ * later request with the same token gets the same renewed token back. Renewal stops {@code max-session-age}
+ * after the original login, after which the client refreshes (or logs in) as before, and as soon as the
+ * session the token was issued with is logged out or revoked: each new renewal checks that the refresh
+ * token with the token's session id is still live, one indexed lookup per token lifetime.
+ */
+@Component
+@Slf4j
+public class SlidingTokenRenewer {
+
+    private final JwtService jwtService;
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final Map<String, Renewal> renewals = new ConcurrentHashMap<>();
+    private final Counter issued;
+    private final Counter reused;
+    private final Counter sessionEnded;
+
+    @Value("${app.security.sliding-renewal.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.security.sliding-renewal.window:300000}")
+    private long windowMillis;
+
+    @Value("${app.security.sliding-renewal.max-session-age:${jwt.refresh-token-expiration}}")
+    private long maxSessionAgeMillis;
+
+    @Value("${app.security.sliding-renewal.max-entries:100000}")
+    private int maxEntries;
+
+    @Value("${jwt.clock-skew:300000}")
+    private long clockSkewMillis;
+
+    private record Renewal(String token, long expiresAt) {
+    }
+
+    public SlidingTokenRenewer(JwtService jwtService, RefreshTokenRepository refreshTokenRepository,
+                               MeterRegistry meterRegistry) {
+        this.jwtService = jwtService;
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.issued = Counter.builder("jwt.sliding_renewal")
+                .description("Access tokens renewed ahead of their expiry")
+                .tag("outcome", "issued")
+                .register(meterRegistry);
+        this.reused = Counter.builder("jwt.sliding_renewal")
+                .description("Access tokens renewed ahead of their expiry")
+                .tag("outcome", "reused")
+                .register(meterRegistry);
+        this.sessionEnded = Counter.builder("jwt.sliding_renewal")
+                .description("Access tokens renewed ahead of their expiry")
+                .tag("outcome", "session_ended")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns a renewed access token for an already validated {@code token}, or {@code null} if it is not
+     * due for renewal yet, the session is too old or no longer live, or renewal is disabled.
+     */
+    public String renew(String token, Claims claims, UserDetails userDetails) {
+        if (!enabled) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        long expiresAt = claims.getExpiration().getTime();
+        if (expiresAt - now > windowMillis
+                || now - TimeUnit.SECONDS.toMillis(jwtService.extractAuthTime(claims)) > maxSessionAgeMillis) {
+            return null;
+        }
+
+        // the HMAC is unique per token, and on its own it is not a usable credential
+        String key = token.substring(token.lastIndexOf('.') + 1);
+        Renewal existing = renewals.get(key);
+        if (existing != null) {
+            reused.increment();
+            return existing.token();
+        }
+        if (renewals.size() >= maxEntries) {
+            log.debug("Sliding renewal skipped, {} renewals outstanding", renewals.size());
+            return null;
+        }
+        // tokens issued before sessions were bound to them cannot be checked and are not renewed
+        String sessionId = jwtService.extractSessionId(claims);
+        if (sessionId == null || !refreshTokenRepository.isSessionActive(sessionId, LocalDateTime.now())) {
+            sessionEnded.increment();
+            return null;
+        }
+        boolean[] computed = new boolean[1];
+        Renewal renewal = renewals.computeIfAbsent(key, k -> {
+            computed[0] = true;
+            return new Renewal(jwtService.renewAccessToken(userDetails, claims), expiresAt);
+        });
+        // a concurrent request with the same token may have renewed it first
+        (computed[0] ? issued : reused).increment();
+        return renewal.token();
+    }
+
+    @Scheduled(fixedDelayString = "${app.security.sliding-renewal.window:300000}")
+    public void evictExpired() {
+        // the old token is accepted until expiry plus clock skew, so its renewal must outlive it by as much
+        long cutoff = System.currentTimeMillis() - clockSkewMillis;
+        renewals.values().removeIf(renewal -> renewal.expiresAt() < cutoff);
+    }
+}
@@ -0,0 +1,121 @@
+package com.nahid.userservice.security;
+
+import com.nahid.userservice.cache.CacheInvalidationListener;
+import com.nahid.userservice.cache.InvalidationEvent;
+import com.nahid.userservice.datasource.ConnectionPool;
+import com.nahid.userservice.datasource.UsePool;
+import com.nahid.userservice.util.collection.LongIntHashMap;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Node-local view of {@code users.token_version}, checked on every authenticated request. An access token
+ * whose version is below the user's current one was issued before a revoke-all and is rejected.
+ * <p>
+ * Only users whose version was ever bumped are held, as primitive id/version pairs. The view is loaded
+ * once, then refreshed incrementally from {@code updated_at} and right away on user invalidation events.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TokenVersionRegistry implements CacheInvalidationListener {
+
+    private static final String SELECT_CHANGED =
+            "SELECT id, token_version, updated_at FROM users WHERE token_version > 0 AND updated_at > ?";
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StampedLock lock = new StampedLock();
+    private final LongIntHashMap versions = new LongIntHashMap(1024);
+
+    @Value("${app.security.token-version.refresh-overlap:30000}")
+    private long refreshOverlapMillis;
+
+    // highest updated_at seen so far, EPOCH forces a full load; rows are re-read from a little before it
+    // to catch transactions that committed late
+    private volatile LocalDateTime watermark = EPOCH;
+
+    public boolean isCurrent(long userId, int tokenVersion) {
+        return tokenVersion >= version(userId);
+    }
+
+    public int version(long userId) {
+        long stamp = lock.tryOptimisticRead();
+        int version = versions.get(userId, 0);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                version = versions.get(userId, 0);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return version;
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${app.security.token-version.refresh-interval:5000}")
+    @UsePool(ConnectionPool.BACKGROUND)
+    public void refresh() {
+        LocalDateTime start = watermark;
+        LocalDateTime from = start.equals(EPOCH) ? EPOCH : start.minusNanos(refreshOverlapMillis * 1_000_000);
+        LocalDateTime[] newest = {start};
+        jdbcTemplate.query(SELECT_CHANGED, rs -> {
+            LocalDateTime updatedAt = rs.getTimestamp(3).toLocalDateTime();
+            apply(rs.getLong(1), rs.getInt(2));
+            if (updatedAt.isAfter(newest[0])) {
+                newest[0] = updatedAt;
+            }
+        }, Timestamp.valueOf(from));
+        // a resync during the query wins
+        if (watermark == start) {
+            watermark = newest[0];
+        }
+    }
+
+    private void reload(long userId) {
+        jdbcTemplate.query("SELECT token_version FROM users WHERE id = ?",
+                rs -> {
+                    apply(userId, rs.getInt(1));
+                }, userId);
+    }
+
+    private void apply(long userId, int version) {
+        long stamp = lock.writeLock();
+        try {
+            // versions only grow; never let an older read overwrite a newer one
+            if (version > versions.get(userId, 0)) {
+                versions.put(userId, version);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void onInvalidation(InvalidationEvent event) {
+        // the bus only dispatches once the change is committed
+        if (event.type() == InvalidationEvent.Type.USER) {
+            try {
+                reload(event.id());
+            } catch (RuntimeException e) {
+                // the next incremental refresh picks the change up
+                log.warn("Could not reload token version for user ID {}: {}", event.id(), e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void onResync() {
+        // events may have been missed while disconnected; the overlap window alone may not cover the gap
+        watermark = EPOCH;
+    }
+}
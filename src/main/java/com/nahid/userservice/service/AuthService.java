@@ -1,5 +1,6 @@
 package com.nahid.userservice.service;
 
+import com.nahid.userservice.audit.AuditLog;
 import com.nahid.userservice.dto.request.AuthRequest;
 import com.nahid.userservice.dto.request.RegisterRequest;
 import com.nahid.userservice.dto.response.AuthResponse;
@@ -8,20 +9,27 @@ import com.nahid.userservice.entity.RefreshToken;
 import com.nahid.userservice.entity.User;
 import com.nahid.userservice.enums.Role;
 import com.nahid.userservice.exception.AuthenticationException;
+import com.nahid.userservice.exception.InvalidRequestException;
 import com.nahid.userservice.repository.RefreshTokenRepository;
 import com.nahid.userservice.repository.UserRepository;
 import com.nahid.userservice.util.contant.ExceptionMessageConstant;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.password.CompromisedPasswordChecker;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
@@ -33,6 +41,13 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final RegisteredEmailFilter registeredEmailFilter;
+    private final RefreshTokenBatchWriter refreshTokenBatchWriter;
+    private final SessionCapEnforcer sessionCapEnforcer;
+    private final AuditLog auditLog;
+    private final CompromisedPasswordChecker compromisedPasswordChecker;
+    private final RefreshTokenCoalescer refreshTokenCoalescer;
+    private final TransactionTemplate transactionTemplate;
 
     @Value("${jwt.refresh-token-expiration}")
     private long refreshTokenExpiration;
@@ -44,7 +59,12 @@ public class AuthService {
     public RegisterResponse register(RegisterRequest request) throws AuthenticationException {
         log.info("Attempting to register user with email: {}", request.getEmail());
 
-        if (userRepository.existsByEmail(request.getEmail())) {
+        if (compromisedPasswordChecker.check(request.getPassword()).isCompromised()) {
+            throw new InvalidRequestException(ExceptionMessageConstant.PASSWORD_COMPROMISED);
+        }
+
+        // A negative filter answer skips the query; the unique constraint below remains the final check
+        if (registeredEmailFilter.mightContain(request.getEmail()) && userRepository.existsByEmail(request.getEmail())) {
             throw new AuthenticationException(ExceptionMessageConstant.EMAIL_ALREADY_REGISTERED);
         }
 
@@ -56,7 +76,13 @@ public class AuthService {
                 .role(Role.USER)
                 .build();
 
-        User savedUser = userRepository.save(user);
+        User savedUser;
+        try {
+            savedUser = userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            throw new AuthenticationException(ExceptionMessageConstant.EMAIL_ALREADY_REGISTERED, e);
+        }
+        registeredEmailFilter.add(savedUser.getEmail());
         log.info("User registered successfully with ID: {}", savedUser.getId());
 
         return RegisterResponse.builder()
@@ -74,22 +100,37 @@ public class AuthService {
 
         UsernamePasswordAuthenticationToken token = new UsernamePasswordAuthenticationToken(request.getEmail(),
                         request.getPassword());
-        Authentication authentication = authenticationManager.authenticate(
-                token
-        );
+        Authentication authentication;
+        try {
+            authentication = authenticationManager.authenticate(
+                    token
+            );
+        } catch (org.springframework.security.core.AuthenticationException e) {
+            auditLog.loginFailed(request.getEmail());
+            throw e;
+        }
         User user = (User) authentication.getPrincipal();
         log.info("User authenticated successfully: {}", user.getEmail());
 
-        return generateTokenAndResponse(user);
+        AuthResponse response = generateTokenAndResponse(user);
+        auditLog.loginSucceeded(user.getId(), user.getEmail());
+        return response;
     }
 
-    @Transactional
+    /**
+     * Concurrent refreshes with the same token share one rotation (see {@link RefreshTokenCoalescer}). The
+     * rotation commits before its result is handed out, so every caller gets a pair that is already stored.
+     */
     public AuthResponse refreshToken(String authHeader) {
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             throw new RuntimeException("Refresh token is missing");
         }
         String token = authHeader.substring(7);
 
+        return refreshTokenCoalescer.rotate(token, () -> transactionTemplate.execute(status -> rotate(token)));
+    }
+
+    private AuthResponse rotate(String token) {
         RefreshToken refreshToken = refreshTokenRepository
                 .findByToken(token)
                 .orElseThrow(() -> new AuthenticationException(ExceptionMessageConstant.INVALID_REFRESH_TOKEN));
@@ -109,21 +150,31 @@ public class AuthService {
 
         refreshTokenRepository.delete(refreshToken);
 
+        AuthResponse response = generateTokenAndResponse(user);
         log.info("Token refreshed successfully for user: {}", user.getEmail());
-        return generateTokenAndResponse(user);
+        auditLog.refreshed(user.getId(), user.getEmail());
+        return response;
     }
 
     private AuthResponse generateTokenAndResponse(User user) {
-        String accessToken = jwtService.generateAccessToken(user);
-        String refreshTokenValue = jwtService.generateRefreshToken(user);
+        String sessionId = UUID.randomUUID().toString();
+        String accessToken = jwtService.generateAccessToken(user, sessionId);
+        String refreshTokenValue = jwtService.generateRefreshToken(user, sessionId);
 
         RefreshToken refreshToken = RefreshToken.builder()
                 .token(refreshTokenValue)
+                .sessionId(sessionId)
                 .user(user)
                 .expiryDate(LocalDateTime.now().plusSeconds(refreshTokenExpiration / 1000))
                 .build();
 
-        refreshTokenRepository.save(refreshToken);
+        if (refreshTokenBatchWriter.isEnabled() && TransactionSynchronizationManager.isSynchronizationActive()) {
+            sessionCapEnforcer.enforce(user, 1);
+            storeAfterCommit(refreshToken);
+        } else {
+            refreshTokenRepository.save(refreshToken);
+            sessionCapEnforcer.enforce(user);
+        }
 
         return AuthResponse.builder()
                 .accessToken(accessToken)
@@ -133,5 +184,19 @@ public class AuthService {
                 .build();
     }
 
-
+    /**
+     * Hands the token to the group commit once the issuing transaction has committed, so a rollback (of
+     * the rotated token's delete or the session cap) never leaves it stored. If the insert then fails or
+     * times out, the exception still fails the request; the old token is gone by then, so the client has to
+     * log in again. The request's pooled connection is still bound here, so nothing in this callback may
+     * need another one.
+     */
+    private void storeAfterCommit(RefreshToken refreshToken) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                refreshTokenBatchWriter.write(refreshToken);
+            }
+        });
+    }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.nahid.userservice.service;
 
+import com.nahid.userservice.entity.User;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SignatureException;
@@ -13,6 +14,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 @Service
@@ -31,9 +33,38 @@ public class JwtService {
     @Value("${jwt.clock-skew:300000}") // 5 minutes default
     private long clockSkew;
 
+    @Value("${jwt.compact-profile.enabled:false}")
+    private boolean compactProfileEnabled;
+
+    // Compact profile: numeric user id as subject and the role bitmask under a one-letter claim
+    public static final String COMPACT_ROLE_CLAIM = "r";
+    // User.tokenVersion at issue time; tokens without it predate the claim and count as version 0
+    public static final String TOKEN_VERSION_CLAIM = "v";
+    // Seconds since the epoch of the login a renewed access token descends from (as in OpenID Connect)
+    public static final String AUTH_TIME_CLAIM = "auth_time";
+    // Session (refresh_tokens.session_id, the refresh token's jti) an access token was issued with
+    public static final String SESSION_ID_CLAIM = "sid";
+
     public String generateAccessToken(UserDetails userDetails) {
+        return generateAccessToken(userDetails, null);
+    }
+
+    /**
+     * Issues an access token bound to the session {@code sessionId}, so that sliding renewal can stop once
+     * that session is revoked. Tokens without a session are never renewed.
+     */
+    public String generateAccessToken(UserDetails userDetails, String sessionId) {
+        if (compactProfileEnabled && userDetails instanceof User user) {
+            return generateCompactAccessToken(user, null, sessionId);
+        }
         Map<String, Object> extraClaims = new HashMap<>();
         extraClaims.put("role", userDetails.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+        if (userDetails instanceof User user) {
+            extraClaims.put(TOKEN_VERSION_CLAIM, user.getTokenVersion());
+        }
+        if (sessionId != null) {
+            extraClaims.put(SESSION_ID_CLAIM, sessionId);
+        }
         return generateAccessToken(extraClaims, userDetails);
     }
 
@@ -42,8 +73,58 @@ public class JwtService {
     }
 
 
+    public String generateCompactAccessToken(User user) {
+        return generateCompactAccessToken(user, null, null);
+    }
+
+    /**
+     * Issues a fresh access token for the session {@code claims} belongs to, carrying over its
+     * authentication time so renewals cannot extend a session past its maximum age.
+     */
+    public String renewAccessToken(UserDetails userDetails, Claims claims) {
+        long authTime = extractAuthTime(claims);
+        String sessionId = extractSessionId(claims);
+        if (compactProfileEnabled && userDetails instanceof User user) {
+            return generateCompactAccessToken(user, authTime, sessionId);
+        }
+        Map<String, Object> extraClaims = new HashMap<>();
+        extraClaims.put("role", userDetails.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+        if (userDetails instanceof User user) {
+            extraClaims.put(TOKEN_VERSION_CLAIM, user.getTokenVersion());
+        }
+        extraClaims.put(AUTH_TIME_CLAIM, authTime);
+        if (sessionId != null) {
+            extraClaims.put(SESSION_ID_CLAIM, sessionId);
+        }
+        return generateAccessToken(extraClaims, userDetails);
+    }
+
+    private String generateCompactAccessToken(User user, Long authTime, String sessionId) {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .subject(String.valueOf(user.getId()))
+                .claim(COMPACT_ROLE_CLAIM, user.getRole().mask())
+                .claim(TOKEN_VERSION_CLAIM, user.getTokenVersion())
+                .claim(AUTH_TIME_CLAIM, authTime)
+                .claim(SESSION_ID_CLAIM, sessionId)
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + accessTokenExpiration))
+                .signWith(getSignInKey())
+                .compact();
+    }
+
     public String generateRefreshToken(UserDetails userDetails) {
-        return buildToken(new HashMap<>(), userDetails, refreshTokenExpiration);
+        return generateRefreshToken(userDetails, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Issues a refresh token for the session {@code sessionId}, used as its jti: a random id keeps two
+     * refresh tokens issued to a user within the same second apart.
+     */
+    public String generateRefreshToken(UserDetails userDetails, String sessionId) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(Claims.ID, sessionId);
+        return buildToken(claims, userDetails, refreshTokenExpiration);
     }
 
     private String buildToken(
@@ -74,6 +155,39 @@ public class JwtService {
         return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
     }
 
+    public int extractTokenVersion(Claims claims) {
+        Integer version = claims.get(TOKEN_VERSION_CLAIM, Integer.class);
+        return version == null ? 0 : version;
+    }
+
+    /**
+     * Authentication time in seconds since the epoch; a token that was never renewed was issued at login.
+     */
+    public long extractAuthTime(Claims claims) {
+        Long authTime = claims.get(AUTH_TIME_CLAIM, Long.class);
+        return authTime != null ? authTime : claims.getIssuedAt().getTime() / 1000;
+    }
+
+    public String extractSessionId(Claims claims) {
+        return claims.get(SESSION_ID_CLAIM, String.class);
+    }
+
+    public boolean isCompactToken(Claims claims) {
+        return claims.containsKey(COMPACT_ROLE_CLAIM);
+    }
+
+    /**
+     * Validates already parsed claims, accepting both the compact profile (subject is the user id)
+     * and the legacy one (subject is the email), so tokens issued before a profile switch keep working.
+     */
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        final String expectedSubject = isCompactToken(claims) && userDetails instanceof User user
+                ? String.valueOf(user.getId())
+                : userDetails.getUsername();
+        return expectedSubject.equals(claims.getSubject())
+                && !claims.getExpiration().before(new Date(System.currentTimeMillis() - clockSkew));
+    }
+
     private boolean isTokenExpired(String token) {
         Date expiration = extractExpiration(token);
         // Add clock skew tolerance
@@ -85,7 +199,7 @@ public class JwtService {
     }
 
 
-    private Claims extractAllClaims(String token) {
+    public Claims extractAllClaims(String token) {
         try {
             SecretKey signingKey = getSignInKey();
 
@@ -0,0 +1,294 @@
+package com.nahid.userservice.service;
+
+import com.nahid.userservice.entity.RefreshToken;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.support.SQLStateSQLExceptionTranslator;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Group commit for refresh-token inserts. Concurrent inserts are collected for up to {@code max-wait} or
+ * {@code max-batch-size} rows, written with one multi-row INSERT and one commit, and only then are the
+ * waiting requests released, so no response is sent for a token that is not durable.
+ * <p>
+ * The rows commit in the writer's own transaction, so callers hand a token over only once their own
+ * transaction has committed (see {@code AuthService}). A request that gives up waiting withdraws its row if
+ * the writer has not picked it up yet, and otherwise waits for the writer's outcome, so a row is never
+ * committed for a request that failed.
+ * <p>
+ * The writer owns a dedicated connection outside the pools, opened through the unpooled
+ * {@code groupCommitDataSource}: request threads may hold pooled connections while they wait, and the writer
+ * must never compete with them for one.
+ */
+@Component
+@Slf4j
+public class RefreshTokenBatchWriter {
+
+    private static final String INSERT_PREFIX =
+            "INSERT INTO refresh_tokens (token, session_id, expiry_date, revoked, user_id, created_at) VALUES ";
+    private static final String ROW_PLACEHOLDER = "(?, ?, ?, ?, ?, ?)";
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    private static final int PENDING = 0;
+    private static final int CLAIMED = 1;
+    private static final int CANCELLED = 2;
+
+    private final ObjectProvider<DataSource> groupCommitDataSource;
+    private final DistributionSummary batchSize;
+    private final Timer waitTime;
+    private final SQLStateSQLExceptionTranslator exceptionTranslator = new SQLStateSQLExceptionTranslator();
+
+    @Value("${app.refresh-token.group-commit.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.refresh-token.group-commit.max-batch-size:64}")
+    private int maxBatchSize;
+
+    @Value("${app.refresh-token.group-commit.max-wait:2}")
+    private long maxWaitMillis;
+
+    @Value("${app.refresh-token.group-commit.timeout:5000}")
+    private long timeoutMillis;
+
+    private DataSource dataSource;
+    private BlockingQueue<PendingInsert> queue;
+    private String[] insertStatements;
+    private Connection connection;
+    private volatile boolean running;
+    private Thread writerThread;
+
+    private record PendingInsert(RefreshToken token, long enqueuedAt, CompletableFuture<Void> committed,
+                                 AtomicInteger state) {
+    }
+
+    public RefreshTokenBatchWriter(@Qualifier("groupCommitDataSource") ObjectProvider<DataSource> groupCommitDataSource,
+                                   MeterRegistry meterRegistry) {
+        this.groupCommitDataSource = groupCommitDataSource;
+        this.batchSize = DistributionSummary.builder("refresh_token.group_commit.batch_size")
+                .description("Rows written per group commit")
+                .register(meterRegistry);
+        this.waitTime = Timer.builder("refresh_token.group_commit.wait")
+                .description("Time from enqueue to commit of a refresh-token insert")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Blocks until the token is committed. When the queue is full, waits for room within the same
+     * {@code timeout}, so a burst is absorbed by the writer rather than by a second pooled connection. Throws
+     * if the insert failed, or if it timed out before the writer picked it up, in which case the row is never
+     * written.
+     */
+    public void write(RefreshToken token) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        PendingInsert insert = new PendingInsert(token, System.nanoTime(), new CompletableFuture<>(),
+                new AtomicInteger(PENDING));
+        try {
+            if (!queue.offer(insert, timeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("Refresh token insert timed out after " + timeoutMillis
+                        + " ms waiting for the group commit queue");
+            }
+            try {
+                insert.committed().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                if (insert.state().compareAndSet(PENDING, CANCELLED)) {
+                    throw new IllegalStateException("Refresh token insert timed out after " + timeoutMillis + " ms", e);
+                }
+                // already being written: the statement timeout bounds the wait for its outcome
+                insert.committed().get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Refresh token insert failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for refresh token insert", e);
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        dataSource = groupCommitDataSource.getObject();
+        queue = new ArrayBlockingQueue<>(maxBatchSize * 64);
+        insertStatements = new String[maxBatchSize + 1];
+        running = true;
+        writerThread = new Thread(this::run, "refresh-token-group-commit");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (writerThread != null) {
+            writerThread.join(timeoutMillis);
+        }
+    }
+
+    private void run() {
+        List<PendingInsert> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingInsert first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                claim(first, batch);
+                long deadline = first.enqueuedAt() + TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingInsert next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    claim(next, batch);
+                }
+                if (!batch.isEmpty()) {
+                    flush(batch);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+        closeConnection();
+    }
+
+    private static void claim(PendingInsert insert, List<PendingInsert> batch) {
+        // inserts withdrawn by a timed-out caller are dropped
+        if (insert.state().compareAndSet(PENDING, CLAIMED)) {
+            batch.add(insert);
+        }
+    }
+
+    private void flush(List<PendingInsert> batch) {
+        try {
+            insert(batch);
+            complete(batch);
+        } catch (RuntimeException e) {
+            rollbackQuietly();
+            closeConnection();
+            for (PendingInsert insert : batch) {
+                insert.committed().completeExceptionally(e);
+            }
+        } catch (SQLException e) {
+            rollbackQuietly();
+            if (batch.size() > 1 && UNIQUE_VIOLATION.equals(e.getSQLState())) {
+                // one bad row must not fail its neighbours: retry them one by one
+                for (PendingInsert insert : batch) {
+                    flush(List.of(insert));
+                }
+                return;
+            }
+            if (!UNIQUE_VIOLATION.equals(e.getSQLState())) {
+                closeConnection();
+            }
+            RuntimeException failure = exceptionTranslator.translate("group commit", null, e);
+            for (PendingInsert insert : batch) {
+                insert.committed().completeExceptionally(failure != null ? failure : new IllegalStateException(e));
+            }
+        }
+    }
+
+    private void insert(List<PendingInsert> batch) throws SQLException {
+        Connection con = connection();
+        try (PreparedStatement statement = con.prepareStatement(insertStatement(batch.size()))) {
+            statement.setQueryTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(timeoutMillis)));
+            int index = 1;
+            for (PendingInsert insert : batch) {
+                RefreshToken token = insert.token();
+                statement.setString(index++, token.getToken());
+                statement.setString(index++, token.getSessionId());
+                statement.setTimestamp(index++, Timestamp.valueOf(token.getExpiryDate()));
+                statement.setBoolean(index++, token.isRevoked());
+                statement.setLong(index++, token.getUser().getId());
+                statement.setTimestamp(index++, Timestamp.valueOf(token.getCreatedAt()));
+            }
+            statement.executeUpdate();
+        }
+        con.commit();
+    }
+
+    private void complete(List<PendingInsert> batch) {
+        long now = System.nanoTime();
+        batchSize.record(batch.size());
+        for (PendingInsert insert : batch) {
+            waitTime.record(now - insert.enqueuedAt(), TimeUnit.NANOSECONDS);
+            insert.committed().complete(null);
+        }
+    }
+
+    private String insertStatement(int rows) {
+        String sql = insertStatements[rows];
+        if (sql == null) {
+            StringBuilder builder = new StringBuilder(INSERT_PREFIX);
+            for (int i = 0; i < rows; i++) {
+                builder.append(i == 0 ? "" : ", ").append(ROW_PLACEHOLDER);
+            }
+            sql = builder.toString();
+            insertStatements[rows] = sql;
+        }
+        return sql;
+    }
+
+    private Connection connection() throws SQLException {
+        if (connection == null || connection.isClosed()) {
+            connection = dataSource.getConnection();
+            connection.setAutoCommit(false);
+        }
+        return connection;
+    }
+
+    private void rollbackQuietly() {
+        try {
+            if (connection != null && !connection.isClosed()) {
+                connection.rollback();
+            }
+        } catch (SQLException e) {
+            log.debug("Rollback after failed group commit failed: {}", e.getMessage());
+        }
+    }
+
+    private void closeConnection() {
+        try {
+            if (connection != null) {
+                connection.close();
+            }
+        } catch (SQLException e) {
+            log.debug("Closing group commit connection failed: {}", e.getMessage());
+        }
+        connection = null;
+    }
+}
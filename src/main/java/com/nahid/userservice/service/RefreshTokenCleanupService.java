@@ -1,20 +1,42 @@
 package com.nahid.userservice.service;
 
+import com.nahid.userservice.datasource.ConnectionPool;
+import com.nahid.userservice.datasource.UsePool;
 import com.nahid.userservice.repository.RefreshTokenRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
+@UsePool(ConnectionPool.BACKGROUND)
 public class RefreshTokenCleanupService {
 
     private final RefreshTokenRepository refreshTokenRepository;
+    private final ObjectProvider<RefreshTokenPartitionManager> partitionManager;
+    private final TransactionTemplate transactionTemplate;
 
     @Scheduled(cron = "${app.refresh-token.cleanup.cron}")
     public void cleanupExpiredTokens() {
-        refreshTokenRepository.deleteByExpiryDateBefore(LocalDateTime.now());
+        RefreshTokenPartitionManager partitions = partitionManager.getIfAvailable();
+        if (partitions != null) {
+            // partitioned table: expired tokens go with their partitions, no row deletes
+            int dropped = partitions.dropExpiredPartitions(LocalDate.now());
+            log.info("Dropped {} expired refresh token partitions", dropped);
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            int active = refreshTokenRepository.deleteExpiredActiveTokens(now);
+            int revoked = refreshTokenRepository.deleteExpiredRevokedTokens(now);
+            log.info("Deleted {} expired refresh tokens ({} revoked)", active + revoked, revoked);
+        });
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,151 @@
+package com.nahid.userservice.service;
+
+import com.nahid.userservice.dto.response.AuthResponse;
+import com.nahid.userservice.exception.ServiceUnavailableException;
+import com.nahid.userservice.util.contant.ExceptionMessageConstant;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight for refresh-token rotation. Concurrent refreshes with the same token share one rotation,
+ * and for {@code grace-period} after it succeeded, repeats of the old token get the same new pair instead
+ * of failing because the old token is gone. Failures are shared with the requests already waiting but
+ * never remembered, and neither is a rotation that joined a caller's transaction which then did not commit.
+ * <p>
+ * Flights are keyed by a SHA-256 digest of the token, so raw tokens are not kept as map keys. Coalescing is
+ * per node; duplicates that reach different nodes still race in the database.
+ */
+@Component
+@Slf4j
+public class RefreshTokenCoalescer {
+
+    private final Map<String, Flight> flights = new ConcurrentHashMap<>();
+    private final Counter coalesced;
+
+    @Value("${app.refresh-token.coalescing.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.refresh-token.coalescing.grace-period:10000}")
+    private long gracePeriodMillis;
+
+    @Value("${app.refresh-token.coalescing.wait-timeout:5000}")
+    private long waitTimeoutMillis;
+
+    private static final class Flight {
+        private final CompletableFuture<AuthResponse> result = new CompletableFuture<>();
+        // System.nanoTime() of a successful completion, 0 while in flight
+        private volatile long completedAt;
+
+        boolean isExpired(long now, long gracePeriodNanos) {
+            long completed = completedAt;
+            return completed != 0 && now - completed > gracePeriodNanos;
+        }
+    }
+
+    public RefreshTokenCoalescer(MeterRegistry meterRegistry) {
+        this.coalesced = Counter.builder("refresh_token.coalesced")
+                .description("Refresh requests answered with the result of a concurrent or recent rotation")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs {@code rotation} for the token unless a rotation of the same token is running or has just
+     * succeeded, in which case its result is returned instead.
+     */
+    public AuthResponse rotate(String token, Supplier<AuthResponse> rotation) {
+        if (!enabled) {
+            return rotation.get();
+        }
+        String key = digest(token);
+        while (true) {
+            Flight flight = new Flight();
+            Flight existing = flights.putIfAbsent(key, flight);
+            if (existing == null) {
+                return lead(key, flight, rotation);
+            }
+            if (existing.isExpired(System.nanoTime(), TimeUnit.MILLISECONDS.toNanos(gracePeriodMillis))) {
+                flights.remove(key, existing);
+                continue;
+            }
+            coalesced.increment();
+            log.debug("Refresh coalesced with a concurrent or recent rotation of the same token");
+            return follow(existing);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.refresh-token.coalescing.grace-period:10000}")
+    public void evictExpired() {
+        long now = System.nanoTime();
+        long gracePeriodNanos = TimeUnit.MILLISECONDS.toNanos(gracePeriodMillis);
+        flights.values().removeIf(flight -> flight.isExpired(now, gracePeriodNanos));
+    }
+
+    private AuthResponse lead(String key, Flight flight, Supplier<AuthResponse> rotation) {
+        AuthResponse response;
+        try {
+            response = rotation.get();
+        } catch (RuntimeException e) {
+            flights.remove(key, flight);
+            flight.result.completeExceptionally(e);
+            throw e;
+        }
+        flight.completedAt = System.nanoTime();
+        flight.result.complete(response);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // the rotation joined the caller's transaction: its pair only exists if that commits
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        flights.remove(key, flight);
+                    }
+                }
+            });
+        }
+        return response;
+    }
+
+    private AuthResponse follow(Flight flight) {
+        try {
+            return flight.result.get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Refresh token rotation failed", e.getCause());
+        } catch (TimeoutException e) {
+            // the leader is slow, not broken: let the client retry instead of reporting a server error
+            throw new ServiceUnavailableException(ExceptionMessageConstant.CONCURRENT_REQUEST_PENDING, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException(ExceptionMessageConstant.CONCURRENT_REQUEST_PENDING, e);
+        }
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.nahid.userservice.service;
+
+import com.nahid.userservice.datasource.ConnectionPool;
+import com.nahid.userservice.datasource.UsePool;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Maintains the daily partitions of {@code refresh_tokens} when the table is partitioned by expiry date
+ * (see {@code db/partitioning}): creates them ahead of time and detaches and drops the ones whose tokens
+ * have all expired.
+ */
+@Component
+@ConditionalOnProperty(name = "app.refresh-token.partitioning.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+@UsePool(ConnectionPool.BACKGROUND)
+public class RefreshTokenPartitionManager {
+
+    private static final Pattern PARTITION_NAME = Pattern.compile("refresh_tokens_p(\\d{8})");
+
+    private static final String SELECT_PARTITIONS = """
+            SELECT c.relname, i.inhdetachpending
+            FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+            WHERE i.inhparent = 'refresh_tokens'::regclass
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${jwt.refresh-token-expiration}")
+    private long refreshTokenExpiration;
+
+    @Value("${app.refresh-token.partitioning.days-ahead:7}")
+    private int daysAhead;
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${app.refresh-token.partitioning.check-interval:3600000}")
+    public void ensurePartitions() {
+        ensurePartitions(LocalDate.now());
+    }
+
+    /**
+     * Creates the missing partitions for every day a token issued from {@code today} on can expire, plus
+     * {@code days-ahead} spare days so that inserts keep working if this job stops running for a while.
+     */
+    public int ensurePartitions(LocalDate today) {
+        LocalDate last = today.plusDays(Duration.ofMillis(refreshTokenExpiration).toDays() + 1 + daysAhead);
+        Map<LocalDate, Boolean> existing = partitions();
+        int created = 0;
+        for (LocalDate day = today; !day.isAfter(last); day = day.plusDays(1)) {
+            if (!existing.containsKey(day)) {
+                jdbcTemplate.execute(String.format(
+                        "CREATE TABLE IF NOT EXISTS %s PARTITION OF refresh_tokens FOR VALUES FROM ('%s') TO ('%s')",
+                        partitionName(day), day, day.plusDays(1)));
+                created++;
+            }
+        }
+        if (created > 0) {
+            log.info("Created {} refresh token partitions up to {}", created, last);
+        }
+        return created;
+    }
+
+    /**
+     * Drops every partition whose upper bound is not after {@code today}, i.e. whose tokens have all expired.
+     * Partitions are detached concurrently first, so concurrent reads and inserts are never blocked; this
+     * must therefore run outside a transaction.
+     */
+    public int dropExpiredPartitions(LocalDate today) {
+        int dropped = 0;
+        for (Map.Entry<LocalDate, Boolean> partition : partitions().entrySet()) {
+            LocalDate day = partition.getKey();
+            if (day.plusDays(1).isAfter(today)) {
+                break;
+            }
+            String name = partitionName(day);
+            // a detach interrupted earlier leaves the partition pending and has to be finalized instead
+            jdbcTemplate.execute("ALTER TABLE refresh_tokens DETACH PARTITION " + name
+                    + (partition.getValue() ? " FINALIZE" : " CONCURRENTLY"));
+            jdbcTemplate.execute("DROP TABLE " + name);
+            dropped++;
+        }
+        return dropped;
+    }
+
+    // day of each partition managed here, mapped to whether a detach is pending; ordered by day
+    private Map<LocalDate, Boolean> partitions() {
+        Map<LocalDate, Boolean> partitions = new TreeMap<>();
+        jdbcTemplate.query(SELECT_PARTITIONS, rs -> {
+            Matcher matcher = PARTITION_NAME.matcher(rs.getString(1));
+            if (matcher.matches()) {
+                partitions.put(LocalDate.parse(matcher.group(1), DateTimeFormatter.BASIC_ISO_DATE), rs.getBoolean(2));
+            }
+        });
+        return partitions;
+    }
+
+    private static String partitionName(LocalDate day) {
+        return "refresh_tokens_p" + day.format(DateTimeFormatter.BASIC_ISO_DATE);
+    }
+}
@@ -0,0 +1,114 @@
+package com.nahid.userservice.service;
+
+import com.nahid.userservice.cache.CacheInvalidationBus;
+import com.nahid.userservice.cache.CacheInvalidationListener;
+import com.nahid.userservice.cache.InvalidationEvent;
+import com.nahid.userservice.datasource.ConnectionPool;
+import com.nahid.userservice.datasource.UsePool;
+import com.nahid.userservice.util.collection.BloomFilter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+/**
+ * In-memory Bloom filter of registered emails, used to skip the existence query for emails that were
+ * certainly never registered. A negative answer may be wrong only for registrations that raced with a
+ * rebuild or missed an event from another node; the unique constraint on {@code users.email} still
+ * rejects those, so correctness never depends on the filter.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RegisteredEmailFilter implements CacheInvalidationListener {
+
+    private static final int FETCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    @Value("${app.registration.email-filter.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.registration.email-filter.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Value("${app.registration.email-filter.max-memory-bytes:16777216}")
+    private long maxMemoryBytes;
+
+    @Value("${app.registration.email-filter.growth-headroom:0.5}")
+    private double growthHeadroom;
+
+    // null until the first build completes; until then every email is reported as possibly registered
+    private volatile BloomFilter filter;
+    // receives registrations made while a rebuild is streaming the table
+    private volatile BloomFilter rebuilding;
+
+    public boolean mightContain(String email) {
+        BloomFilter current = filter;
+        return current == null || current.mightContain(email);
+    }
+
+    /**
+     * Records a new registration on this node and, through the invalidation bus, on every other node.
+     */
+    public void add(String email) {
+        cacheInvalidationBus.publish(InvalidationEvent.registration(BloomFilter.hash(email)));
+    }
+
+    @Override
+    public void onInvalidation(InvalidationEvent event) {
+        if (event.type() != InvalidationEvent.Type.REGISTRATION) {
+            return;
+        }
+        BloomFilter pending = rebuilding;
+        if (pending != null) {
+            pending.putHash(event.id());
+        }
+        BloomFilter current = filter;
+        if (current != null) {
+            current.putHash(event.id());
+        }
+    }
+
+    @Override
+    public void onResync() {
+        // registrations missed while disconnected only cause false negatives until the next rebuild
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${app.registration.email-filter.rebuild-interval:21600000}")
+    @UsePool(ConnectionPool.BACKGROUND)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        Long count = jdbcTemplate.queryForObject("SELECT count(*) FROM users", Long.class);
+        long expected = (long) ((count == null ? 0 : count) * (1 + growthHeadroom)) + 1000;
+        BloomFilter next = BloomFilter.create(expected, falsePositiveRate, maxMemoryBytes);
+        rebuilding = next;
+        try {
+            // fetch size only streams inside a transaction on Postgres
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement("SELECT email FROM users",
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(FETCH_SIZE);
+                return statement;
+            }, rs -> {
+                next.put(rs.getString(1));
+            });
+            filter = next;
+        } finally {
+            rebuilding = null;
+        }
+        log.info("Registered email filter rebuilt: {} emails, {} bytes, {} hash functions in {} ms",
+                count, next.sizeInBytes(), next.hashFunctions(), System.currentTimeMillis() - start);
+    }
+}
@@ -0,0 +1,60 @@
+package com.nahid.userservice.service;
+
+import com.nahid.userservice.cache.CacheInvalidationBus;
+import com.nahid.userservice.cache.InvalidationEvent;
+import com.nahid.userservice.entity.User;
+import com.nahid.userservice.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Caps the number of active sessions (refresh tokens) per user. When a new token pushes a user over the
+ * cap, the oldest sessions are deleted with a single statement. Must run inside the issuing transaction.
+ */
+@Component
+@Slf4j
+public class SessionCapEnforcer {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final Counter evictions;
+
+    @Value("${app.session.max-active-per-user:0}")
+    private int maxActiveSessions;
+
+    public SessionCapEnforcer(RefreshTokenRepository refreshTokenRepository,
+                              CacheInvalidationBus cacheInvalidationBus,
+                              MeterRegistry meterRegistry) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        this.evictions = Counter.builder("refresh_token.sessions.evicted")
+                .description("Sessions deleted because a user exceeded the active-session cap")
+                .register(meterRegistry);
+    }
+
+    public void enforce(User user) {
+        enforce(user, 0);
+    }
+
+    /**
+     * Caps the user's sessions counting {@code pending} more that are about to be stored after this
+     * transaction commits, so the cap still holds once they are.
+     */
+    public void enforce(User user, int pending) {
+        if (maxActiveSessions <= 0) {
+            return;
+        }
+        int keep = Math.max(0, maxActiveSessions - pending);
+        int evicted = refreshTokenRepository.deleteActiveSessionsBeyond(user.getId(), keep, LocalDateTime.now());
+        if (evicted > 0) {
+            evictions.increment(evicted);
+            cacheInvalidationBus.publish(InvalidationEvent.session(user.getId()));
+            log.debug("Evicted {} oldest sessions for user ID: {}", evicted, user.getId());
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.nahid.userservice.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nahid.userservice.datasource.ConnectionPool;
+import com.nahid.userservice.datasource.UsePool;
+import com.nahid.userservice.enums.ExportFormat;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full export of {@code users} for compliance, written row by row while it is read. Rows are read in keyset
+ * pages of {@code page-size} ordered by id, one short query per page on the admin pool, so neither the heap
+ * nor a database connection is held for the length of the export. The password hash and token state are
+ * never selected.
+ */
+@Service
+@UsePool(ConnectionPool.ADMIN)
+@RequiredArgsConstructor
+@Slf4j
+public class UserExportService {
+
+    private static final String PAGE = "SELECT id, email, first_name, last_name, role, enabled, created_at, updated_at "
+            + "FROM users WHERE id > ? ORDER BY id LIMIT ?";
+    private static final String[] COLUMNS =
+            {"id", "email", "firstName", "lastName", "role", "enabled", "createdAt", "updatedAt"};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.admin.export.page-size:1000}")
+    private int pageSize;
+
+    /**
+     * Writes every user to {@code out}, flushing after each page. A failed write means the client has gone
+     * away; the export then stops before the next page is read and returns normally, since there is nobody
+     * left to report the error to. Returns the number of rows written.
+     */
+    public long export(ExportFormat format, OutputStream out) {
+        long start = System.nanoTime();
+        PageWriter page = new PageWriter(format == ExportFormat.CSV ? new CsvRowWriter(out) : new NdjsonRowWriter(out));
+        String outcome = "completed";
+        try {
+            page.writer.begin();
+            int rows;
+            do {
+                rows = page.rows;
+                jdbcTemplate.query(PAGE, page, page.lastId, pageSize);
+                page.writer.flush();
+            } while (page.rows - rows == pageSize);
+        } catch (IOException | UncheckedIOException e) {
+            outcome = "aborted";
+            log.debug("User export ({}) stopped after {} rows, the client went away: {}",
+                    format, page.rows, e.getMessage());
+        }
+
+        long elapsed = System.nanoTime() - start;
+        Timer.builder("admin.export")
+                .description("Duration of admin user exports")
+                .tag("format", format.extension())
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(elapsed, TimeUnit.NANOSECONDS);
+        log.info("User export ({}) {} with {} rows in {} ms", format, outcome, page.rows, elapsed / 1_000_000);
+        return page.rows;
+    }
+
+    private static final class PageWriter implements RowCallbackHandler {
+
+        private final RowWriter writer;
+        private long lastId;
+        private int rows;
+
+        private PageWriter(RowWriter writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            try {
+                writer.write(rs);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            lastId = rs.getLong(1);
+            rows++;
+        }
+    }
+
+    private interface RowWriter {
+
+        void begin() throws IOException;
+
+        void write(ResultSet rs) throws SQLException, IOException;
+
+        void flush() throws IOException;
+    }
+
+    private final class NdjsonRowWriter implements RowWriter {
+
+        private final OutputStream out;
+        private JsonGenerator generator;
+
+        private NdjsonRowWriter(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void begin() throws IOException {
+            generator = objectMapper.getFactory().createGenerator(out);
+            // one object per line, terminated by the newline written below rather than separated by a space
+            generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            generator.writeStartObject();
+            generator.writeNumberField(COLUMNS[0], rs.getLong(1));
+            generator.writeStringField(COLUMNS[1], rs.getString(2));
+            generator.writeStringField(COLUMNS[2], rs.getString(3));
+            generator.writeStringField(COLUMNS[3], rs.getString(4));
+            generator.writeStringField(COLUMNS[4], rs.getString(5));
+            generator.writeBooleanField(COLUMNS[5], rs.getBoolean(6));
+            generator.writeStringField(COLUMNS[6], timestamp(rs.getTimestamp(7)));
+            generator.writeStringField(COLUMNS[7], timestamp(rs.getTimestamp(8)));
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            generator.flush();
+        }
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+
+        private final Writer writer;
+
+        private CsvRowWriter(OutputStream out) {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void begin() throws IOException {
+            writer.write(String.join(",", COLUMNS));
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            writer.write(Long.toString(rs.getLong(1)));
+            for (int column = 2; column <= 5; column++) {
+                writer.write(',');
+                writer.write(escape(rs.getString(column)));
+            }
+            writer.write(',');
+            writer.write(Boolean.toString(rs.getBoolean(6)));
+            writer.write(',');
+            writer.write(Objects.toString(timestamp(rs.getTimestamp(7)), ""));
+            writer.write(',');
+            writer.write(Objects.toString(timestamp(rs.getTimestamp(8)), ""));
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writer.flush();
+        }
+
+        // RFC 4180 quoting; names and emails are user input, so cells that a spreadsheet would evaluate as a
+        // formula are prefixed with an apostrophe
+        private static String escape(String value) {
+            if (value == null || value.isEmpty()) {
+                return "";
+            }
+            char first = value.charAt(0);
+            if (first == '=' || first == '+' || first == '-' || first == '@' || first == '\t' || first == '\r') {
+                value = "'" + value;
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+
+    private static String timestamp(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime().toString();
+    }
+}
@@ -1,22 +1,50 @@
 package com.nahid.userservice.service;
 
+import com.nahid.userservice.audit.AuditLog;
+import com.nahid.userservice.cache.CacheInvalidationBus;
+import com.nahid.userservice.cache.InvalidationEvent;
+import com.nahid.userservice.cache.UserCache;
 import com.nahid.userservice.dto.response.LogoutResponse;
+import com.nahid.userservice.dto.response.SessionPageResponse;
+import com.nahid.userservice.dto.response.SessionResponse;
+import com.nahid.userservice.dto.response.UserBatchResponse;
 import com.nahid.userservice.dto.response.UserResponse;
+import com.nahid.userservice.dto.response.UserSummaryResponse;
 import com.nahid.userservice.entity.RefreshToken;
 import com.nahid.userservice.entity.User;
 import com.nahid.userservice.exception.AuthenticationException;
+import com.nahid.userservice.exception.InvalidRequestException;
+import com.nahid.userservice.exception.ResourceNotFoundException;
 import com.nahid.userservice.repository.RefreshTokenRepository;
 import com.nahid.userservice.repository.UserRepository;
+import com.nahid.userservice.mapper.UserMapper;
+import com.nahid.userservice.repository.projection.SessionView;
+import com.nahid.userservice.repository.projection.UserSummaryView;
 import com.nahid.userservice.util.contant.ExceptionMessageConstant;
 import com.nahid.userservice.util.contant.AppConstant;
-import jakarta.transaction.Transactional;
+import com.nahid.userservice.util.helper.ApiResponseUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 import static com.nahid.userservice.util.contant.ExceptionMessageConstant.*;
 
@@ -26,17 +54,53 @@ import static com.nahid.userservice.util.contant.ExceptionMessageConstant.*;
 @Slf4j
 public class UserService implements UserDetailsService {
 
+    private static final int MAX_SESSION_PAGE_SIZE = 100;
+
     private final UserRepository userRepository;
     private final RefreshTokenRepository refreshTokenRepository;
+    private final UserCache userCache;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final AuditLog auditLog;
+    private final UserMapper userMapper;
+
+    @Value("${app.users.batch.max-size:500}")
+    private int maxBatchSize;
 
     @Override
+    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        Optional<User> cached = userCache.getByEmail(username);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
         log.debug("Loading user by username: {}", username);
 
-        return userRepository.findByEmail(username)
+        User user = userRepository.findByEmail(username)
                 .orElseThrow(() -> new UsernameNotFoundException(
                     String.format(ExceptionMessageConstant.ENTITY_NOT_FOUND_BY_FIELD,
                         AppConstant.USER, "email", username)));
+        userCache.put(user);
+        return user;
+    }
+
+    @Transactional(readOnly = true)
+    public UserDetails loadUserById(Long id) throws UsernameNotFoundException {
+        Optional<User> cached = userCache.getById(id);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        log.debug("Loading user by id: {}", id);
+
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new UsernameNotFoundException(
+                    String.format(ExceptionMessageConstant.ENTITY_NOT_FOUND_BY_ID, AppConstant.USER, id)));
+        userCache.put(user);
+        return user;
+    }
+
+    public String getMeETag() {
+        User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        return ApiResponseUtil.eTag(user.getId(), user.getUpdatedAt());
     }
 
     public UserResponse getMe() {
@@ -52,6 +116,118 @@ public class UserService implements UserDetailsService {
                 .build();
     }
 
+    /**
+     * Resolves ids to public user summaries with a single query, for other services that would otherwise
+     * look users up one by one.
+     */
+    @Transactional(readOnly = true)
+    public UserBatchResponse getUsers(List<Long> ids) {
+        Set<Long> requested = new LinkedHashSet<>(ids);
+        requested.remove(null);
+        if (requested.size() > maxBatchSize) {
+            throw new InvalidRequestException(String.format(USER_BATCH_TOO_LARGE, maxBatchSize));
+        }
+        // an empty IN list is not valid SQL on every database, and there is nothing to look up
+        if (requested.isEmpty()) {
+            return UserBatchResponse.builder()
+                    .users(List.of())
+                    .notFound(List.of())
+                    .build();
+        }
+
+        Map<Long, UserSummaryView> found = new HashMap<>();
+        for (UserSummaryView view : userRepository.findSummariesByIdIn(requested)) {
+            found.put(view.getId(), view);
+        }
+        List<UserSummaryResponse> users = new ArrayList<>(found.size());
+        List<Long> notFound = new ArrayList<>();
+        for (Long id : requested) {
+            UserSummaryView view = found.get(id);
+            if (view != null) {
+                users.add(userMapper.toSummary(view));
+            } else {
+                notFound.add(id);
+            }
+        }
+        return UserBatchResponse.builder()
+                .users(users)
+                .notFound(notFound)
+                .build();
+    }
+
+    @Transactional(readOnly = true)
+    public SessionPageResponse getMySessions(String cursor, int requestedSize) {
+        int size = Math.clamp(requestedSize, 1, MAX_SESSION_PAGE_SIZE);
+        User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        LocalDateTime now = LocalDateTime.now();
+        // fetch one extra row to learn whether another page exists
+        Limit limit = Limit.of(size + 1);
+
+        List<SessionView> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = refreshTokenRepository.findActiveSessions(user.getId(), now, limit);
+        } else {
+            SessionCursor position = SessionCursor.decode(cursor);
+            rows = refreshTokenRepository.findActiveSessionsBefore(
+                    user.getId(), now, position.createdAt(), position.id(), limit);
+        }
+
+        boolean hasMore = rows.size() > size;
+        List<SessionView> page = hasMore ? rows.subList(0, size) : rows;
+        List<SessionResponse> sessions = page.stream()
+                .map(session -> SessionResponse.builder()
+                        .id(session.getId())
+                        .createdAt(session.getCreatedAt())
+                        .expiresAt(session.getExpiryDate())
+                        .build())
+                .toList();
+
+        SessionView last = page.isEmpty() ? null : page.get(page.size() - 1);
+        return SessionPageResponse.builder()
+                .sessions(sessions)
+                .nextCursor(hasMore ? new SessionCursor(last.getCreatedAt(), last.getId()).encode() : null)
+                .build();
+    }
+
+    @Transactional
+    public void revokeSession(Long sessionId) {
+        User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+
+        if (refreshTokenRepository.revokeByIdAndUserId(sessionId, user.getId()) == 0) {
+            throw new ResourceNotFoundException(
+                    String.format(ENTITY_NOT_FOUND_BY_ID, AppConstant.SESSION, sessionId));
+        }
+        cacheInvalidationBus.publish(InvalidationEvent.session(user.getId()));
+    }
+
+    @Transactional
+    public LogoutResponse logoutEverywhere() {
+        User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+
+        int revoked = refreshTokenRepository.revokeAllByUserId(user.getId());
+        cacheInvalidationBus.publish(InvalidationEvent.session(user.getId()));
+        revokeAccessTokens(user.getId());
+        log.info("Revoked {} sessions for user ID: {}", revoked, user.getId());
+        auditLog.loggedOutEverywhere(user.getId(), user.getEmail());
+
+        return LogoutResponse.builder()
+                .message(String.format("Logged out from %d sessions", revoked))
+                .success(true)
+                .build();
+    }
+
+    /**
+     * Invalidates every access token issued to the user so far by bumping the user's token version.
+     */
+    @Transactional
+    public void revokeAccessTokens(Long userId) {
+        if (userRepository.incrementTokenVersion(userId, LocalDateTime.now()) == 0) {
+            throw new ResourceNotFoundException(String.format(ENTITY_NOT_FOUND_BY_ID, AppConstant.USER, userId));
+        }
+        cacheInvalidationBus.publish(InvalidationEvent.user(userId));
+        log.info("Revoked all access tokens for user ID: {}", userId);
+    }
+
     @Transactional
     public LogoutResponse logout(String authHeader) {
         log.info("Attempting logout with authorization header");
@@ -79,6 +255,8 @@ public class UserService implements UserDetailsService {
 
         tokenEntity.setRevoked(true);
         refreshTokenRepository.save(tokenEntity);
+        cacheInvalidationBus.publish(InvalidationEvent.session(tokenEntity.getUser().getId()));
+        auditLog.loggedOut(tokenEntity.getUser().getId(), tokenEntity.getUser().getEmail());
 
         return LogoutResponse.builder()
                 .message("Logged out successfully")
@@ -86,4 +264,22 @@ public class UserService implements UserDetailsService {
                 .build();
     }
 
-}
\ No newline at end of file
+    private record SessionCursor(LocalDateTime createdAt, long id) {
+
+        String encode() {
+            String raw = createdAt + "_" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static SessionCursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.lastIndexOf('_');
+                return new SessionCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                        Long.parseLong(raw.substring(separator + 1)));
+            } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+                throw new InvalidRequestException(String.format(INVALID_REQUEST, "malformed cursor"));
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.nahid.userservice.util.collection;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from {@code long} to {@code int} without boxing, using linear probing over a
+ * single array of interleaved key/value slots. Entries cannot be removed.
+ * <p>
+ * Not thread-safe. A read racing with a write never throws or loops, but may return a stale or torn
+ * value, so it is suitable for optimistic reads that are validated afterwards (e.g. with a StampedLock).
+ */
+public final class LongIntHashMap {
+
+    private static final long EMPTY = 0L;
+
+    // [key0, value0, key1, value1, ...]; key 0 marks an empty slot, so its value is kept aside
+    private long[] table;
+    private boolean hasZeroKey;
+    private int zeroValue;
+    private int size;
+
+    public LongIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedSize * 2) - 1) << 1;
+        table = new long[capacity * 2];
+    }
+
+    public int get(long key, int defaultValue) {
+        if (key == EMPTY) {
+            return hasZeroKey ? zeroValue : defaultValue;
+        }
+        long[] current = table;
+        int mask = current.length - 2;
+        for (int i = index(key, mask); ; i = (i + 2) & mask) {
+            long existing = current[i];
+            if (existing == key) {
+                return (int) current[i + 1];
+            }
+            if (existing == EMPTY) {
+                return defaultValue;
+            }
+        }
+    }
+
+    public void put(long key, int value) {
+        if (key == EMPTY) {
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            zeroValue = value;
+            return;
+        }
+        if (insert(table, key, value)) {
+            size++;
+            // keep the load factor at or below one half
+            if (size * 4L > table.length) {
+                resize();
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(table, EMPTY);
+        hasZeroKey = false;
+        size = 0;
+    }
+
+    private static boolean insert(long[] target, long key, int value) {
+        int mask = target.length - 2;
+        int i = index(key, mask);
+        while (target[i] != EMPTY) {
+            if (target[i] == key) {
+                target[i + 1] = value;
+                return false;
+            }
+            i = (i + 2) & mask;
+        }
+        target[i + 1] = value;
+        target[i] = key;
+        return true;
+    }
+
+    private static int index(long key, int mask) {
+        long h = key * 0x9e3779b97f4a7c15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private void resize() {
+        long[] old = table;
+        long[] next = new long[old.length * 2];
+        for (int i = 0; i < old.length; i += 2) {
+            if (old[i] != EMPTY) {
+                insert(next, old[i], (int) old[i + 1]);
+            }
+        }
+        table = next;
+    }
+}
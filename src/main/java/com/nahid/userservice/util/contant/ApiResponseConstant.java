@@ -22,6 +22,10 @@ public class ApiResponseConstant {
     public static final String TOKEN_REFRESHED_SUCCESSFULLY = "Token refreshed successfully";
     public static final String LOGOUT_SUCCESSFUL = "Logout successful";
     public static final String USER_PROFILE_FETCHED = "User profile fetched successfully";
+    public static final String USERS_FETCHED = "Users fetched successfully";
+    public static final String SESSIONS_FETCHED = "Sessions fetched successfully";
+    public static final String SESSION_REVOKED = "Session revoked successfully";
+    public static final String ALL_SESSIONS_REVOKED = "All sessions revoked successfully";
 
     public static final String CUSTOMER_VERIFICATION_SUCCESS = "Customer verified successfully";
     public static final String CUSTOMER_PROFILE_COMPLETE = "Customer profile is complete";
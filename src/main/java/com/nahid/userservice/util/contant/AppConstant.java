@@ -14,5 +14,6 @@ public class AppConstant {
     public static final String CUSTOMER = "customer";
     public static final String CUSTOMERS = "customers";
     public static final String ROLE = "role";
+    public static final String SESSION = "session";
 
 }
\ No newline at end of file
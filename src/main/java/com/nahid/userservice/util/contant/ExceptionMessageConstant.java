@@ -19,6 +19,7 @@ public class ExceptionMessageConstant {
 
     // Authentication-related constants
     public static final String EMAIL_ALREADY_REGISTERED = "Email already registered";
+    public static final String PASSWORD_COMPROMISED = "Password has appeared in a known data breach, please choose a different one";
     public static final String INVALID_REFRESH_TOKEN = "Invalid refresh token";
     public static final String REFRESH_TOKEN_REVOKED = "Refresh token has been revoked";
     public static final String REFRESH_TOKEN_EXPIRED = "Refresh token has expired";
@@ -28,5 +29,11 @@ public class ExceptionMessageConstant {
     public static final String ACCESS_DENIED = "Access denied";
     public static final String VALIDATION_FAILED = "Validation failed";
     public static final String UNEXPECTED_ERROR = "An unexpected error occurred";
+    public static final String USER_BATCH_TOO_LARGE = "At most %d user ids can be looked up at once";
+    public static final String UNSUPPORTED_EXPORT_FORMAT = "Unsupported export format '%s', use ndjson or csv";
+    public static final String SERVICE_OVERLOADED = "Service is overloaded, please retry later";
+    public static final String CONCURRENT_REQUEST_PENDING = "An identical request is still being processed, please retry later";
+    public static final String INVALID_IDEMPOTENCY_KEY = "Idempotency-Key must be 1 to 255 printable ASCII characters";
+    public static final String IDEMPOTENCY_KEY_REUSED = "Idempotency-Key has already been used with a different request";
 
 }
@@ -3,14 +3,21 @@ package com.nahid.userservice.util.helper;
 import com.nahid.userservice.dto.response.ApiResponse;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.function.Supplier;
 
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class ApiResponseUtil {
 
+    // per-user data: browsers may keep it, shared caches may not, and every use is revalidated
+    private static final CacheControl PRIVATE_REVALIDATE = CacheControl.noCache().cachePrivate();
 
     public static <T> ResponseEntity<ApiResponse<T>> success(T data, String message){
         ApiResponse<T> response = ApiResponse.<T>builder()
@@ -34,6 +41,35 @@ public class ApiResponseUtil {
         return ResponseEntity.status(httpStatus).body(response);
     }
 
+    /**
+     * Conditional GET: answers 304 without building or serializing the body when {@code If-None-Match}
+     * matches {@code eTag}, otherwise 200 with the data from {@code data}.
+     */
+    public static <T> ResponseEntity<ApiResponse<T>> conditionalSuccess(WebRequest webRequest, String eTag,
+                                                                        Supplier<T> data, String message) {
+        if (webRequest.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(PRIVATE_REVALIDATE).build();
+        }
+        ApiResponse<T> response = ApiResponse.<T>builder()
+                .success(true)
+                .message(message)
+                .data(data.get())
+                .timestamp(Instant.now())
+                .statusCode(HttpStatus.OK.value())
+                .build();
+        return ResponseEntity.ok().eTag(eTag).cacheControl(PRIVATE_REVALIDATE).body(response);
+    }
+
+    /**
+     * Strong ETag for an entity version. The envelope's timestamp is not part of it: two responses
+     * with the same tag carry the same data.
+     */
+    public static String eTag(Object id, LocalDateTime updatedAt) {
+        long version = updatedAt == null ? 0
+                : updatedAt.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + updatedAt.getNano();
+        return "\"" + id + "-" + Long.toHexString(version) + "\"";
+    }
+
     public static <T> ResponseEntity<ApiResponse<T>> failure(String message) {
         ApiResponse<T> response = ApiResponse.<T>builder()
                 .success(false)
@@ -0,0 +1,181 @@
+package com.nahid.userservice.util.helper;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.nahid.userservice.dto.response.ApiResponse;
+import com.nahid.userservice.util.contant.ExceptionMessageConstant;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Writes error envelopes as ready-made JSON bytes. Bodies for the fixed messages in
+ * {@link ExceptionMessageConstant} only differ in their timestamp, so each (message, status) pair is
+ * serialized once and later responses splice the current time into the cached bytes. Anything else goes
+ * through a prebuilt {@link ObjectWriter}. The output is byte for byte what Jackson writes for the same
+ * {@link ApiResponse}.
+ */
+@Component
+@Slf4j
+public class ApiResponseWriter {
+
+    // serialized as 1970-01-01T00:00:00Z, which cannot occur in a message
+    private static final Instant PLACEHOLDER = Instant.EPOCH;
+    // length of yyyy-MM-ddTHH:mm:ss; other years get a sign or a fifth digit and are left to Jackson
+    private static final int SECOND_LENGTH = 19;
+    private static final long MIN_EPOCH_SECOND = Instant.parse("0000-01-01T00:00:00Z").getEpochSecond();
+    private static final long MAX_EPOCH_SECOND = Instant.parse("9999-12-31T23:59:59Z").getEpochSecond();
+
+    private final ObjectWriter writer;
+    private final Set<String> constantMessages = constantMessages();
+    private final Map<TemplateKey, Template> templates = new ConcurrentHashMap<>();
+    private final String placeholder;
+    private volatile Second second = new Second(Long.MIN_VALUE, null);
+
+    private record TemplateKey(String message, int statusCode) {
+    }
+
+    private record Template(byte[] prefix, byte[] suffix) {
+    }
+
+    // the formatted date and time of one second, reused until the clock moves on
+    private record Second(long epochSecond, byte[] text) {
+    }
+
+    public ApiResponseWriter(ObjectMapper objectMapper) {
+        this.writer = objectMapper.writerFor(ApiResponse.class);
+        String serialized = writeString(objectMapper, PLACEHOLDER);
+        // templates need the timestamp as Instant#toString writes it; otherwise every body is serialized
+        this.placeholder = serialized.equals("\"" + PLACEHOLDER + "\"") ? PLACEHOLDER.toString() : null;
+        if (placeholder == null) {
+            log.warn("Instants are not serialized as ISO-8601 strings ({}), error templates disabled", serialized);
+        }
+    }
+
+    public ResponseEntity<byte[]> failure(String message, HttpStatus status) {
+        return json(status, failureBody(message, status.value(), Instant.now()));
+    }
+
+    public ResponseEntity<byte[]> failure(String message, HttpStatus status, Object data) {
+        return json(status, encode(envelope(message, status.value(), data, Instant.now())));
+    }
+
+    /**
+     * Body of a failure envelope without data, for callers that write the response themselves.
+     */
+    public byte[] failureBody(String message, int statusCode) {
+        return failureBody(message, statusCode, Instant.now());
+    }
+
+    byte[] failureBody(String message, int statusCode, Instant timestamp) {
+        if (placeholder == null || !constantMessages.contains(message)
+                || timestamp.getEpochSecond() < MIN_EPOCH_SECOND || timestamp.getEpochSecond() > MAX_EPOCH_SECOND) {
+            return encode(envelope(message, statusCode, null, timestamp));
+        }
+        Template template = templates.computeIfAbsent(new TemplateKey(message, statusCode), this::template);
+        int digits = fractionDigits(timestamp.getNano());
+        int timeLength = SECOND_LENGTH + (digits == 0 ? 0 : digits + 1) + 1;
+        byte[] body = new byte[template.prefix().length + timeLength + template.suffix().length];
+        System.arraycopy(template.prefix(), 0, body, 0, template.prefix().length);
+        writeTimestamp(timestamp, digits, body, template.prefix().length);
+        System.arraycopy(template.suffix(), 0, body, template.prefix().length + timeLength, template.suffix().length);
+        return body;
+    }
+
+    // Instant#toString writes the fraction in groups of three digits, as many as the nanoseconds need
+    private static int fractionDigits(int nanos) {
+        return nanos == 0 ? 0 : nanos % 1_000_000 == 0 ? 3 : nanos % 1_000 == 0 ? 6 : 9;
+    }
+
+    private void writeTimestamp(Instant timestamp, int digits, byte[] body, int at) {
+        Second current = second;
+        if (current.epochSecond() != timestamp.getEpochSecond()) {
+            String text = Instant.ofEpochSecond(timestamp.getEpochSecond()).toString();
+            current = new Second(timestamp.getEpochSecond(),
+                    text.substring(0, text.length() - 1).getBytes(StandardCharsets.US_ASCII));
+            second = current;
+        }
+        System.arraycopy(current.text(), 0, body, at, current.text().length);
+        at += current.text().length;
+
+        if (digits != 0) {
+            int value = timestamp.getNano() / (digits == 3 ? 1_000_000 : digits == 6 ? 1_000 : 1);
+            body[at++] = '.';
+            for (int i = at + digits - 1; i >= at; i--) {
+                body[i] = (byte) ('0' + value % 10);
+                value /= 10;
+            }
+            at += digits;
+        }
+        body[at] = 'Z';
+    }
+
+    private Template template(TemplateKey key) {
+        String body = new String(encode(envelope(key.message(), key.statusCode(), null, PLACEHOLDER)),
+                StandardCharsets.UTF_8);
+        int at = body.lastIndexOf(placeholder);
+        return new Template(
+                body.substring(0, at).getBytes(StandardCharsets.UTF_8),
+                body.substring(at + placeholder.length()).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private byte[] encode(ApiResponse<Object> response) {
+        try {
+            return writer.writeValueAsBytes(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize response", e);
+        }
+    }
+
+    private static ApiResponse<Object> envelope(String message, int statusCode, Object data, Instant timestamp) {
+        return ApiResponse.builder()
+                .success(false)
+                .message(message)
+                .data(data)
+                .statusCode(statusCode)
+                .timestamp(timestamp)
+                .build();
+    }
+
+    private static ResponseEntity<byte[]> json(HttpStatus status, byte[] body) {
+        return ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    private static String writeString(ObjectMapper objectMapper, Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // the fixed messages; format strings such as "%s not found" vary per use and are not cached
+    private static Set<String> constantMessages() {
+        Set<String> messages = new HashSet<>();
+        for (Field field : ExceptionMessageConstant.class.getFields()) {
+            if (Modifier.isStatic(field.getModifiers()) && field.getType() == String.class) {
+                try {
+                    String message = (String) field.get(null);
+                    if (!message.contains("%")) {
+                        messages.add(message);
+                    }
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+        return Set.copyOf(messages);
+    }
+}
@@ -0,0 +1,36 @@
+-- Schema as previously generated by hibernate ddl-auto=update, with the same constraint names, so that
+-- existing databases can be baselined at version 1 (spring.flyway.baseline-on-migrate).
+
+CREATE TABLE users (
+    id                      BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    account_non_expired     BOOLEAN      NOT NULL,
+    account_non_locked      BOOLEAN      NOT NULL,
+    created_at              TIMESTAMP(6),
+    credentials_non_expired BOOLEAN      NOT NULL,
+    email                   VARCHAR(255) NOT NULL,
+    enabled                 BOOLEAN      NOT NULL,
+    first_name              VARCHAR(255) NOT NULL,
+    last_name               VARCHAR(255) NOT NULL,
+    password                VARCHAR(255) NOT NULL,
+    role                    VARCHAR(255),
+    updated_at              TIMESTAMP(6),
+    token_version           INTEGER      DEFAULT 0 NOT NULL,
+    CONSTRAINT users_pkey PRIMARY KEY (id),
+    CONSTRAINT uk6dotkott2kjsp8vw4d0m25fb7 UNIQUE (email),
+    CONSTRAINT users_role_check CHECK (role IN ('USER', 'ADMIN'))
+);
+
+CREATE TABLE refresh_tokens (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    created_at  TIMESTAMP(6),
+    expiry_date TIMESTAMP(6) NOT NULL,
+    revoked     BOOLEAN      NOT NULL,
+    token       VARCHAR(255) NOT NULL,
+    user_id     BIGINT       NOT NULL,
+    CONSTRAINT refresh_tokens_pkey PRIMARY KEY (id),
+    CONSTRAINT ukghpmfn23vmxfu3spu3lfg4r2d UNIQUE (token),
+    CONSTRAINT fk1lih5y2npsf8u5o3vhdb9y0os FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+-- keyset pagination of a user's sessions; also serves every lookup by user_id
+CREATE INDEX idx_refresh_tokens_user_created ON refresh_tokens (user_id, created_at);
@@ -0,0 +1,9 @@
+-- Built without blocking writes; Flyway runs CONCURRENTLY statements outside a transaction.
+-- Lookups by refresh_tokens.user_id already use idx_refresh_tokens_user_created (user_id leading).
+
+-- cleanup of expired, non-revoked tokens
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_refresh_tokens_active_expiry
+    ON refresh_tokens (expiry_date) WHERE revoked = false;
+
+-- case-insensitive email lookups and uniqueness; fails if emails differing only in case already exist
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS uk_users_email_lower ON users (lower(email));
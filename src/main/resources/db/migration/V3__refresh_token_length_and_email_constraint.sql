@@ -0,0 +1,5 @@
+-- refresh tokens carry a random jti and can exceed 255 characters for long emails
+ALTER TABLE refresh_tokens ALTER COLUMN token TYPE VARCHAR(512);
+
+-- superseded by uk_users_email_lower
+ALTER TABLE users DROP CONSTRAINT IF EXISTS uk6dotkott2kjsp8vw4d0m25fb7;
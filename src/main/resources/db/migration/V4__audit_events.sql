@@ -0,0 +1,11 @@
+-- written in batches by TableAuditSink when app.audit.table.enabled=true; no foreign key so that the
+-- trail outlives deleted users
+CREATE TABLE audit_events (
+    id          BIGSERIAL PRIMARY KEY,
+    occurred_at TIMESTAMP(6) NOT NULL,
+    event_type  VARCHAR(32)  NOT NULL,
+    user_id     BIGINT,
+    subject     VARCHAR(255)
+);
+
+CREATE INDEX idx_audit_events_user_occurred ON audit_events (user_id, occurred_at);
@@ -0,0 +1,3 @@
+-- SERVICE: accounts of other services in the cluster, allowed to call internal endpoints such as /api/users/batch
+ALTER TABLE users DROP CONSTRAINT users_role_check;
+ALTER TABLE users ADD CONSTRAINT users_role_check CHECK (role IN ('USER', 'ADMIN', 'SERVICE'));
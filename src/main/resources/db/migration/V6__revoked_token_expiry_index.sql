@@ -0,0 +1,5 @@
+-- cleanup of expired, revoked tokens; revoked rows are few, so the partial index stays small.
+-- ${concurrently} is CONCURRENTLY except with the partitioned profile: a partitioned table cannot build
+-- an index concurrently, and its expired tokens are dropped with their partitions rather than deleted.
+CREATE INDEX ${concurrently} IF NOT EXISTS idx_refresh_tokens_revoked_expiry
+    ON refresh_tokens (expiry_date) WHERE revoked = true;
@@ -0,0 +1,4 @@
+-- TokenVersionRegistry polls for users whose token version changed since its last run, on every node every
+-- few seconds; only bumped users (token_version > 0) are indexed, so the index stays small.
+CREATE INDEX ${concurrently} IF NOT EXISTS idx_users_token_version_updated_at
+    ON users (updated_at) WHERE token_version > 0;
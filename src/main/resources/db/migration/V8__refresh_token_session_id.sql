@@ -0,0 +1,3 @@
+-- Session id of a refresh token (its jti), carried by the access tokens issued with it so that sliding
+-- renewal can check the session is still live. Rows issued before this migration have none.
+ALTER TABLE refresh_tokens ADD COLUMN IF NOT EXISTS session_id VARCHAR(36);
@@ -0,0 +1,4 @@
+-- SlidingTokenRenewer looks up the session of every access token it renews; only live sessions matter.
+-- Separate from V8: a concurrent index build cannot share a migration with transactional statements.
+CREATE INDEX ${concurrently} IF NOT EXISTS idx_refresh_tokens_active_session
+    ON refresh_tokens (session_id) WHERE revoked = false;
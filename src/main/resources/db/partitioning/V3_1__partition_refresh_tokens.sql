@@ -0,0 +1,59 @@
+-- Optional: turns refresh_tokens into a table range-partitioned by day of expiry_date, so expired tokens
+-- are removed by dropping whole partitions (RefreshTokenPartitionManager) instead of deleting rows.
+-- Enabled with the "partitioned" profile; there is no way back short of a manual migration.
+--
+-- Unique constraints on a partitioned table must contain the partition key, so token uniqueness is
+-- enforced per (token, expiry_date). A token is the same string only if its exp claim is the same, and
+-- every token carries a random jti, so this is as strong as the global constraint in practice.
+--
+-- Versioned 3.1 so that a fresh schema is partitioned before V4, but the profile sets
+-- spring.flyway.out-of-order, so a schema already past V3 runs it last instead. It therefore has to leave
+-- the same table behind either way: it carries the columns and indexes of the later refresh_tokens
+-- migrations, and those use IF NOT EXISTS.
+
+CREATE TABLE refresh_tokens_partitioned (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    created_at  TIMESTAMP(6),
+    expiry_date TIMESTAMP(6) NOT NULL,
+    revoked     BOOLEAN      NOT NULL,
+    token       VARCHAR(512) NOT NULL,
+    user_id     BIGINT       NOT NULL,
+    session_id  VARCHAR(36),
+    CONSTRAINT refresh_tokens_partitioned_pkey PRIMARY KEY (id, expiry_date),
+    CONSTRAINT uk_refresh_tokens_token_expiry UNIQUE (token, expiry_date),
+    CONSTRAINT fk_refresh_tokens_user FOREIGN KEY (user_id) REFERENCES users (id)
+) PARTITION BY RANGE (expiry_date);
+
+-- one partition per day, from the oldest stored token to at least two weeks ahead; the manager keeps
+-- extending it
+DO $$
+DECLARE
+    day      DATE := LEAST(COALESCE((SELECT min(expiry_date)::date FROM refresh_tokens), current_date), current_date);
+    last_day DATE := GREATEST(COALESCE((SELECT max(expiry_date)::date FROM refresh_tokens), current_date), current_date + 14);
+BEGIN
+    WHILE day <= last_day LOOP
+        EXECUTE format('CREATE TABLE refresh_tokens_p%s PARTITION OF refresh_tokens_partitioned FOR VALUES FROM (%L) TO (%L)',
+                to_char(day, 'YYYYMMDD'), day, day + 1);
+        day := day + 1;
+    END LOOP;
+END $$;
+
+-- only present when V8 ran first; the old table is dropped below
+ALTER TABLE refresh_tokens ADD COLUMN IF NOT EXISTS session_id VARCHAR(36);
+
+INSERT INTO refresh_tokens_partitioned (id, created_at, expiry_date, revoked, token, user_id, session_id)
+SELECT id, created_at, expiry_date, revoked, token, user_id, session_id FROM refresh_tokens;
+
+SELECT setval(pg_get_serial_sequence('refresh_tokens_partitioned', 'id'),
+              (SELECT COALESCE(max(id), 0) + 1 FROM refresh_tokens), false);
+
+DROP TABLE refresh_tokens;
+ALTER TABLE refresh_tokens_partitioned RENAME TO refresh_tokens;
+ALTER TABLE refresh_tokens RENAME CONSTRAINT refresh_tokens_partitioned_pkey TO refresh_tokens_pkey;
+
+-- the indexes of the unpartitioned table, now created on every partition
+CREATE INDEX idx_refresh_tokens_user_created ON refresh_tokens (user_id, created_at);
+CREATE INDEX idx_refresh_tokens_active_expiry ON refresh_tokens (expiry_date) WHERE revoked = false;
+-- V6 and V9, in case they ran before this migration
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_revoked_expiry ON refresh_tokens (expiry_date) WHERE revoked = true;
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_active_session ON refresh_tokens (session_id) WHERE revoked = false;
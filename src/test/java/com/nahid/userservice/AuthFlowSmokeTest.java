@@ -0,0 +1,102 @@
+package com.nahid.userservice;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Register and its idempotent retry, login, authenticated call and its conditional repeat, refresh and revoke-all against an
+ * in-memory database. Also runs inside the native image with {@code ./mvnw -PnativeTest test}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("smoke")
+class AuthFlowSmokeTest {
+
+    private static final String EMAIL = "smoke@example.com";
+    private static final String PASSWORD = "smokePassword123";
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void authFlow() throws Exception {
+        HttpHeaders idempotent = new HttpHeaders();
+        idempotent.set("Idempotency-Key", "smoke-register-1");
+        HttpEntity<Map<String, String>> registration = new HttpEntity<>(Map.of(
+                "firstName", "Smoke", "lastName", "Test", "email", EMAIL, "password", PASSWORD), idempotent);
+        ResponseEntity<String> register = restTemplate.postForEntity("/api/auth/register", registration, String.class);
+        assertThat(register.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+
+        // a retry with the same key replays the registration instead of failing on the existing email
+        ResponseEntity<String> retry = restTemplate.postForEntity("/api/auth/register", registration, String.class);
+        assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(data(retry).get("id")).isEqualTo(data(register).get("id"));
+
+        ResponseEntity<String> login = restTemplate.postForEntity("/api/auth/login",
+                Map.of("email", EMAIL, "password", PASSWORD), String.class);
+        assertThat(login.getStatusCode()).isEqualTo(HttpStatus.OK);
+        JsonNode tokens = data(login);
+
+        ResponseEntity<String> me = exchange(HttpMethod.GET, "/api/users/me", tokens.get("accessToken").asText());
+        assertThat(me.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(data(me).get("email").asText()).isEqualTo(EMAIL);
+        assertThat(me.getHeaders().getCacheControl()).isEqualTo("no-cache, private");
+        String eTag = me.getHeaders().getETag();
+        assertThat(eTag).isNotNull();
+
+        HttpHeaders conditional = new HttpHeaders();
+        conditional.setIfNoneMatch(eTag);
+        ResponseEntity<String> notModified = exchange(HttpMethod.GET, "/api/users/me",
+                tokens.get("accessToken").asText(), conditional);
+        assertThat(notModified.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(notModified.getBody()).isNull();
+
+        // internal endpoint, reserved for SERVICE and ADMIN accounts
+        ResponseEntity<String> batch = exchange(HttpMethod.GET, "/api/users/batch?ids=1,2",
+                tokens.get("accessToken").asText());
+        assertThat(batch.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+
+        ResponseEntity<String> refresh = exchange(HttpMethod.POST, "/api/auth/refresh", tokens.get("refreshToken").asText());
+        assertThat(refresh.getStatusCode()).isEqualTo(HttpStatus.OK);
+        String accessToken = data(refresh).get("accessToken").asText();
+
+        ResponseEntity<String> sessions = exchange(HttpMethod.GET, "/api/users/me/sessions", accessToken);
+        assertThat(sessions.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(data(sessions).get("sessions").size()).isEqualTo(1);
+
+        ResponseEntity<String> revokeAll = exchange(HttpMethod.DELETE, "/api/users/me/sessions", accessToken);
+        assertThat(revokeAll.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        ResponseEntity<String> afterRevoke = exchange(HttpMethod.GET, "/api/users/me", accessToken);
+        assertThat(afterRevoke.getStatusCode().is4xxClientError()).isTrue();
+    }
+
+    private ResponseEntity<String> exchange(HttpMethod method, String path, String bearerToken) {
+        return exchange(method, path, bearerToken, new HttpHeaders());
+    }
+
+    private ResponseEntity<String> exchange(HttpMethod method, String path, String bearerToken, HttpHeaders headers) {
+        headers.setBearerAuth(bearerToken);
+        return restTemplate.exchange(path, method, new HttpEntity<>(headers), String.class);
+    }
+
+    private JsonNode data(ResponseEntity<String> response) throws Exception {
+        return objectMapper.readTree(response.getBody()).get("data");
+    }
+}
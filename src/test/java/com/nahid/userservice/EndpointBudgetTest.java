@@ -0,0 +1,323 @@
+package com.nahid.userservice;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.assertj.core.api.SoftAssertions;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledInNativeImage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Query-count and allocation budgets for every endpoint of {@code AuthController} and {@code UserController},
+ * checked in as {@code endpoint-budgets.properties}. Each endpoint is called a few times against the
+ * in-memory database; a request may not exceed its budget of JDBC statements, entities loaded by Hibernate,
+ * or bytes allocated by the request thread. Statements are counted on the connections the pools and the
+ * group-commit writer hand out, so Hibernate, {@code JdbcTemplate} and the writer are all included; only
+ * the scheduler's own threads are left out. Group commit is on, so refresh-token inserts take the writer's
+ * path. Statement and entity counts are exact, so an added N+1 fails the build; allocations are the least
+ * of the measured rounds, with headroom in the budget for JIT and library noise.
+ * <p>
+ * When a change legitimately moves a number, the measured values are logged in the budget file's format.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:budgets;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN",
+        "app.refresh-token.group-commit.enabled=true",
+        "spring.task.scheduling.thread-name-prefix=" + EndpointBudgetTest.SCHEDULER_THREADS
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("smoke")
+@DisabledInNativeImage
+class EndpointBudgetTest {
+
+    static final String SCHEDULER_THREADS = "budget-scheduling-";
+
+    private static final Logger log = LoggerFactory.getLogger(EndpointBudgetTest.class);
+    private static final AtomicLong STATEMENTS = new AtomicLong();
+    private static final String BUDGETS = "endpoint-budgets.properties";
+    private static final String PASSWORD = "budgetPassword123";
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final AtomicInteger accounts = new AtomicInteger();
+    private final Map<String, Usage> measured = new LinkedHashMap<>();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private record Usage(long statements, long entityLoads, long allocatedBytes) {
+
+        // the most statements and entity loads of any round, but the fewest bytes
+        Usage worst(Usage other) {
+            return new Usage(Math.max(statements, other.statements), Math.max(entityLoads, other.entityLoads),
+                    Math.min(allocatedBytes, other.allocatedBytes));
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void endpointsStayWithinBudget() throws Exception {
+        String user = register();
+        String admin = register();
+        jdbcTemplate.update("UPDATE users SET role = 'ADMIN' WHERE email = ?", admin);
+        JsonNode userTokens = login(user);
+        String adminToken = login(admin).get("accessToken").asText();
+        String ids = jdbcTemplate.queryForList("SELECT id FROM users ORDER BY id", Long.class).stream()
+                .map(String::valueOf).reduce((a, b) -> a + "," + b).orElseThrow();
+
+        measure("auth.register", 201, () -> post("/api/auth/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(Map.of("firstName", "Budget", "lastName", "Test",
+                        "email", nextEmail(), "password", PASSWORD))));
+        measure("auth.login", 200, () -> post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(Map.of("email", user, "password", PASSWORD))));
+        measure("auth.refresh", 200, () -> post("/api/auth/refresh")
+                .header(HttpHeaders.AUTHORIZATION, bearer(login(user).get("refreshToken").asText())));
+        measure("auth.logout", 200, () -> post("/api/auth/logout")
+                .header(HttpHeaders.AUTHORIZATION, bearer(login(user).get("refreshToken").asText())));
+
+        String accessToken = userTokens.get("accessToken").asText();
+        measure("users.me", 200, () -> get("/api/users/me")
+                .header(HttpHeaders.AUTHORIZATION, bearer(accessToken)));
+        String eTag = perform(get("/api/users/me").header(HttpHeaders.AUTHORIZATION, bearer(accessToken)))
+                .getResponse().getHeader(HttpHeaders.ETAG);
+        measure("users.me.not-modified", 304, () -> get("/api/users/me")
+                .header(HttpHeaders.AUTHORIZATION, bearer(accessToken))
+                .header(HttpHeaders.IF_NONE_MATCH, eTag));
+        measure("users.batch.get", 200, () -> get("/api/users/batch")
+                .param("ids", ids)
+                .header(HttpHeaders.AUTHORIZATION, bearer(adminToken)));
+        measure("users.batch.post", 200, () -> post("/api/users/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"ids\":[" + ids + "]}")
+                .header(HttpHeaders.AUTHORIZATION, bearer(adminToken)));
+        measure("users.sessions.list", 200, () -> get("/api/users/me/sessions")
+                .header(HttpHeaders.AUTHORIZATION, bearer(accessToken)));
+        measure("users.sessions.revoke", 200, () -> {
+            String token = login(user).get("accessToken").asText();
+            long sessionId = data(perform(get("/api/users/me/sessions").header(HttpHeaders.AUTHORIZATION, bearer(token))))
+                    .get("sessions").get(0).get("id").asLong();
+            return delete("/api/users/me/sessions/{sessionId}", sessionId)
+                    .header(HttpHeaders.AUTHORIZATION, bearer(token));
+        });
+        // revoking every session also invalidates the access token, so each round signs in a new account
+        measure("users.sessions.revoke-all", 200, () -> delete("/api/users/me/sessions")
+                .header(HttpHeaders.AUTHORIZATION, bearer(login(register()).get("accessToken").asText())));
+
+        assertWithinBudgets();
+    }
+
+    /**
+     * Calls the endpoint {@code WARMUP_ROUNDS + MEASURED_ROUNDS} times; {@code request} runs before each
+     * call and its own requests are not counted.
+     */
+    private void measure(String endpoint, int status, Supplier<MockHttpServletRequestBuilder> request)
+            throws Exception {
+        Usage usage = null;
+        for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+            MockHttpServletRequestBuilder builder = request.get();
+            statistics.clear();
+            STATEMENTS.set(0);
+            long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+            MvcResult result = mockMvc.perform(builder).andReturn();
+            long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+            Usage current = new Usage(STATEMENTS.get(), statistics.getEntityLoadCount(), allocated);
+
+            assertThat(result.getResponse().getStatus()).as("status of %s", endpoint).isEqualTo(status);
+            if (round >= WARMUP_ROUNDS) {
+                usage = usage == null ? current : usage.worst(current);
+            }
+        }
+        measured.put(endpoint, usage);
+    }
+
+    private void assertWithinBudgets() throws Exception {
+        Properties budgets = PropertiesLoaderUtils.loadProperties(new ClassPathResource(BUDGETS));
+        StringBuilder report = new StringBuilder("Measured (" + BUDGETS + " format):\n");
+        SoftAssertions softly = new SoftAssertions();
+        TreeSet<String> unused = new TreeSet<>(budgets.stringPropertyNames());
+        measured.forEach((endpoint, usage) -> {
+            report.append(String.format("%s.statements=%d%n%s.entity-loads=%d%n%s.allocated-bytes=%d%n",
+                    endpoint, usage.statements(), endpoint, usage.entityLoads(), endpoint, usage.allocatedBytes()));
+            check(softly, budgets, unused, endpoint + ".statements", usage.statements());
+            check(softly, budgets, unused, endpoint + ".entity-loads", usage.entityLoads());
+            check(softly, budgets, unused, endpoint + ".allocated-bytes", usage.allocatedBytes());
+        });
+        log.info("{}", report);
+        softly.assertThat(unused).as("budgets for endpoints that are no longer measured").isEmpty();
+        softly.assertAll();
+    }
+
+    private static void check(SoftAssertions softly, Properties budgets, TreeSet<String> unused, String key,
+                              long actual) {
+        unused.remove(key);
+        String budget = budgets.getProperty(key);
+        softly.assertThat(budget).as("budget %s in %s", key, BUDGETS).isNotNull();
+        if (budget != null) {
+            softly.assertThat(actual).as(key).isLessThanOrEqualTo(Long.parseLong(budget.trim()));
+        }
+    }
+
+    private String register() {
+        String email = nextEmail();
+        MvcResult result = perform(post("/api/auth/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(Map.of("firstName", "Budget", "lastName", "Test", "email", email, "password", PASSWORD))));
+        assertThat(result.getResponse().getStatus()).isEqualTo(201);
+        return email;
+    }
+
+    private JsonNode login(String email) {
+        MvcResult result = perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(Map.of("email", email, "password", PASSWORD))));
+        assertThat(result.getResponse().getStatus()).isEqualTo(200);
+        return data(result);
+    }
+
+    private String nextEmail() {
+        return "budget" + accounts.incrementAndGet() + "@example.com";
+    }
+
+    private MvcResult perform(MockHttpServletRequestBuilder request) {
+        try {
+            return mockMvc.perform(request).andReturn();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private JsonNode data(MvcResult result) {
+        try {
+            return objectMapper.readTree(result.getResponse().getContentAsByteArray()).get("data");
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String json(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String bearer(String token) {
+        return "Bearer " + token;
+    }
+
+    /**
+     * Wraps the DataSources that open physical connections, leaving out the routing and lazy layers above
+     * them so no statement is counted twice.
+     */
+    @TestConfiguration
+    static class StatementCounting {
+
+        @Bean
+        static BeanPostProcessor statementCountingDataSources() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource dataSource && !(bean instanceof AbstractRoutingDataSource)
+                            && !(bean instanceof DelegatingDataSource)) {
+                        return counting(DataSource.class, dataSource);
+                    }
+                    return bean;
+                }
+            };
+        }
+
+        // prepared statements count when prepared, plain ones per execution
+        private static <T> T counting(Class<T> type, T target) {
+            Class<?>[] interfaces = {type};
+            return type.cast(Proxy.newProxyInstance(type.getClassLoader(), interfaces, (proxy, method, args) -> {
+                Object result;
+                try {
+                    result = method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+                String name = method.getName();
+                if (result instanceof Connection connection && name.equals("getConnection")) {
+                    return counting(Connection.class, connection);
+                }
+                if (result instanceof Statement statement && name.equals("createStatement")) {
+                    return counting(Statement.class, statement);
+                }
+                boolean prepared = type == Connection.class
+                        && (name.startsWith("prepareStatement") || name.startsWith("prepareCall"));
+                if (prepared || (type == Statement.class && name.startsWith("execute"))) {
+                    count();
+                }
+                return result;
+            }));
+        }
+
+        private static void count() {
+            if (!Thread.currentThread().getName().startsWith(SCHEDULER_THREADS)) {
+                STATEMENTS.incrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.nahid.userservice;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledInNativeImage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * {@code /api/users/batch} against the in-memory database, with {@code app.users.batch.max-size} lowered so
+ * that the limit is easy to reach.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:batch;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+        "app.users.batch.max-size=4"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("smoke")
+@DisabledInNativeImage
+class UserBatchLookupTest {
+
+    private static final String ADMIN = "batch.admin@example.com";
+    private static final String PASSWORD = "batchPassword123";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String adminToken;
+    private final List<Long> userIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        if (jdbcTemplate.queryForObject("SELECT count(*) FROM users WHERE email = ?", Integer.class, ADMIN) == 0) {
+            perform(post("/api/auth/register")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(json(Map.of("firstName", "Batch", "lastName", "Admin", "email", ADMIN,
+                            "password", PASSWORD))), 201);
+            jdbcTemplate.update("UPDATE users SET role = 'ADMIN' WHERE email = ?", ADMIN);
+            for (int i = 1; i <= 3; i++) {
+                jdbcTemplate.update("""
+                        INSERT INTO users (account_non_expired, account_non_locked, credentials_non_expired, enabled,
+                                           email, first_name, last_name, password, role, token_version, created_at, updated_at)
+                        VALUES (true, true, true, true, ?, 'Batch', ?, 'unused', 'USER', 0, now(), now())""",
+                        "batch.user" + i + "@example.com", "User" + i);
+            }
+        }
+        userIds.addAll(jdbcTemplate.queryForList(
+                "SELECT id FROM users WHERE email LIKE 'batch.user%' ORDER BY email", Long.class));
+        adminToken = data(perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(Map.of("email", ADMIN, "password", PASSWORD))), 200))
+                .get("accessToken").asText();
+    }
+
+    @Test
+    void returnsUsersInRequestOrderWithoutDuplicates() throws Exception {
+        long first = userIds.get(0);
+        long second = userIds.get(1);
+        long third = userIds.get(2);
+
+        JsonNode batch = data(perform(get("/api/users/batch")
+                .param("ids", third + "," + first + "," + third + "," + second + "," + first)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + adminToken), 200));
+
+        assertThat(ids(batch.get("users"))).containsExactly(third, first, second);
+        assertThat(batch.get("users").get(0).get("email").asText()).isEqualTo("batch.user3@example.com");
+        assertThat(batch.get("notFound")).isEmpty();
+    }
+
+    @Test
+    void reportsUnknownIdsAsNotFound() throws Exception {
+        long known = userIds.get(1);
+
+        JsonNode batch = data(perform(post("/api/users/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"ids\":[999999, " + known + ", 888888, 999999]}")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + adminToken), 200));
+
+        assertThat(ids(batch.get("users"))).containsExactly(known);
+        assertThat(ids(batch.get("notFound"))).containsExactly(999999L, 888888L);
+    }
+
+    @Test
+    void rejectsMoreDistinctIdsThanTheMaxSize() throws Exception {
+        perform(post("/api/users/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"ids\":[1, 2, 3, 4, 5]}")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + adminToken), 400);
+
+        // duplicates do not count against the limit
+        perform(post("/api/users/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"ids\":[1, 2, 3, 4, 4, 4]}")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + adminToken), 200);
+    }
+
+    @Test
+    void nullAndEmptyIdListsResolveToNothing() throws Exception {
+        JsonNode allNull = data(perform(post("/api/users/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"ids\":[null, null]}")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + adminToken), 200));
+        assertThat(allNull.get("users")).isEmpty();
+        assertThat(allNull.get("notFound")).isEmpty();
+
+        JsonNode empty = data(perform(get("/api/users/batch")
+                .param("ids", ",")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + adminToken), 200));
+        assertThat(empty.get("users")).isEmpty();
+        assertThat(empty.get("notFound")).isEmpty();
+
+        perform(post("/api/users/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"ids\":[]}")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + adminToken), 400);
+    }
+
+    private MvcResult perform(MockHttpServletRequestBuilder request, int status) throws Exception {
+        MvcResult result = mockMvc.perform(request).andReturn();
+        assertThat(result.getResponse().getStatus()).as(result.getResponse().getContentAsString()).isEqualTo(status);
+        return result;
+    }
+
+    private JsonNode data(MvcResult result) throws Exception {
+        return objectMapper.readTree(result.getResponse().getContentAsByteArray()).get("data");
+    }
+
+    private String json(Object value) throws Exception {
+        return objectMapper.writeValueAsString(value);
+    }
+
+    private static List<Long> ids(JsonNode nodes) {
+        List<Long> ids = new ArrayList<>();
+        nodes.forEach(node -> ids.add(node.isObject() ? node.get("id").asLong() : node.asLong()));
+        return ids;
+    }
+}
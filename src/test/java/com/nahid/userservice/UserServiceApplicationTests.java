@@ -3,7 +3,7 @@ package com.nahid.userservice;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "app.warmup.enabled=false")
 class UserServiceApplicationTests {
 
     @Test
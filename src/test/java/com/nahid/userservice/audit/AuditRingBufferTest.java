@@ -0,0 +1,98 @@
+package com.nahid.userservice.audit;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AuditRingBufferTest {
+
+    private static final int PRODUCERS = 4;
+    private static final int EVENTS_PER_PRODUCER = 50_000;
+
+    @Test
+    void deliversEveryEventOnceAndInOrderPerProducer() throws Exception {
+        AuditRingBuffer buffer = new AuditRingBuffer(256);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> producers = new ArrayList<>();
+        for (int p = 1; p <= PRODUCERS; p++) {
+            long producer = p;
+            Thread thread = new Thread(() -> {
+                awaitQuietly(start);
+                for (int i = 0; i < EVENTS_PER_PRODUCER; i++) {
+                    buffer.publish(AuditEventType.LOGIN_SUCCESS, producer, null, i);
+                }
+            });
+            thread.start();
+            producers.add(thread);
+        }
+
+        long[] next = new long[PRODUCERS + 1];
+        int[] received = {0};
+        start.countDown();
+        while (received[0] < PRODUCERS * EVENTS_PER_PRODUCER) {
+            received[0] += buffer.drain(event -> {
+                int producer = (int) event.getUserId();
+                assertEquals(next[producer]++, event.getTimestamp());
+            }, 64);
+        }
+        for (Thread thread : producers) {
+            thread.join();
+        }
+
+        for (int p = 1; p <= PRODUCERS; p++) {
+            assertEquals(EVENTS_PER_PRODUCER, next[p]);
+        }
+        assertEquals(0, buffer.backlog());
+    }
+
+    @Test
+    void tryPublishRejectsWhenFullUntilDrained() {
+        AuditRingBuffer buffer = new AuditRingBuffer(4);
+        for (int i = 0; i < buffer.capacity(); i++) {
+            assertTrue(buffer.tryPublish(AuditEventType.REFRESH, 1, "john@example.com", i));
+        }
+        assertFalse(buffer.tryPublish(AuditEventType.REFRESH, 1, "john@example.com", 99));
+
+        List<String> subjects = new ArrayList<>();
+        assertEquals(1, buffer.drain(event -> subjects.add(event.getSubject()), 1));
+        assertTrue(buffer.tryPublish(AuditEventType.LOGOUT, 1, null, 100));
+        assertEquals(buffer.capacity(), buffer.backlog());
+        assertEquals(List.of("john@example.com"), subjects);
+    }
+
+    @Test
+    void publishingDoesNotAllocate() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        AuditRingBuffer buffer = new AuditRingBuffer(1024);
+        String subject = "john@example.com";
+        for (int i = 0; i < 200_000; i++) {
+            buffer.tryPublish(AuditEventType.LOGIN_FAILURE, 0, subject, i);
+            buffer.drain(event -> { }, 1);
+        }
+
+        long threadId = Thread.currentThread().threadId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 1000; i++) {
+            buffer.tryPublish(AuditEventType.LOGIN_FAILURE, 0, subject, i);
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        // the measurement itself may allocate a little, but far less than one object per event
+        assertTrue(allocated < 1000, "publishing allocated " + allocated + " bytes");
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.nahid.userservice.audit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TableAuditSinkTest {
+
+    @Test
+    void overlongSubjectIsCutInsteadOfFailingTheBatch() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:audit;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1"));
+        jdbcTemplate.execute("""
+                CREATE TABLE audit_events (
+                    id          BIGSERIAL PRIMARY KEY,
+                    occurred_at TIMESTAMP(6) NOT NULL,
+                    event_type  VARCHAR(32)  NOT NULL,
+                    user_id     BIGINT,
+                    subject     VARCHAR(255)
+                )""");
+        TableAuditSink sink = new TableAuditSink(jdbcTemplate);
+        ReflectionTestUtils.setField(sink, "batchSize", 10);
+        sink.init();
+
+        String overlong = "a".repeat(TableAuditSink.MAX_SUBJECT_LENGTH - 1) + "😀@example.com";
+        sink.write(event(AuditEventType.LOGIN_SUCCESS, 7, "john@example.com"));
+        sink.write(event(AuditEventType.LOGIN_FAILURE, 0, overlong));
+        sink.flush();
+
+        List<String> subjects = jdbcTemplate.queryForList("SELECT subject FROM audit_events ORDER BY id", String.class);
+        assertEquals(List.of("john@example.com", "a".repeat(TableAuditSink.MAX_SUBJECT_LENGTH - 1)), subjects);
+    }
+
+    private static AuditEvent event(AuditEventType type, long userId, String subject) {
+        AuditEvent event = new AuditEvent();
+        event.set(type, userId, subject, System.currentTimeMillis());
+        return event;
+    }
+}
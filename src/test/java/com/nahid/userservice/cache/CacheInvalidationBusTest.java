@@ -0,0 +1,102 @@
+package com.nahid.userservice.cache;
+
+import com.nahid.userservice.entity.User;
+import com.nahid.userservice.enums.Role;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CacheInvalidationBusTest {
+
+    private final List<InvalidationEvent> received = new ArrayList<>();
+    private final UserCache userCache = new UserCache();
+    private CacheInvalidationBus bus;
+
+    @BeforeEach
+    void setUp() {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("listener", new CacheInvalidationListener() {
+            @Override
+            public void onInvalidation(InvalidationEvent event) {
+                received.add(event);
+            }
+
+            @Override
+            public void onResync() {
+            }
+        });
+        ReflectionTestUtils.setField(userCache, "ttlMillis", 60_000L);
+        ReflectionTestUtils.setField(userCache, "maxSize", 100);
+        beanFactory.addBean("userCache", userCache);
+        // notifications disabled: only the local dispatch is exercised
+        bus = new CacheInvalidationBus(null, new DataSourceProperties(),
+                beanFactory.getBeanProvider(CacheInvalidationListener.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void dispatchesRightAwayOutsideATransaction() {
+        bus.publish(InvalidationEvent.user(1));
+
+        assertEquals(List.of(InvalidationEvent.user(1)), received);
+    }
+
+    @Test
+    void dispatchesOnlyOnceTheTransactionCommits() {
+        TransactionSynchronizationManager.initSynchronization();
+        bus.publish(InvalidationEvent.user(1));
+        assertTrue(received.isEmpty());
+
+        TransactionSynchronizationUtils.triggerAfterCommit();
+        assertEquals(List.of(InvalidationEvent.user(1)), received);
+    }
+
+    @Test
+    void dropsTheEventWhenTheTransactionRollsBack() {
+        TransactionSynchronizationManager.initSynchronization();
+        bus.publish(InvalidationEvent.session(1));
+
+        TransactionSynchronizationUtils.invokeAfterCompletion(
+                TransactionSynchronizationManager.getSynchronizations(), TransactionSynchronization.STATUS_ROLLED_BACK);
+        assertTrue(received.isEmpty());
+    }
+
+    @Test
+    void userInvalidationEvictsEveryCasingOfTheEmail() {
+        userCache.put(User.builder()
+                .id(7L)
+                .email("Mixed.Case@Example.com")
+                .password("hash")
+                .firstName("Mixed")
+                .lastName("Case")
+                .role(Role.USER)
+                .build());
+        assertTrue(userCache.getByEmail("mixed.case@example.com").isPresent());
+        assertTrue(userCache.getByEmail("MIXED.CASE@EXAMPLE.COM").isPresent());
+
+        bus.publish(InvalidationEvent.user(7));
+
+        assertFalse(userCache.getByEmail("Mixed.Case@Example.com").isPresent());
+        assertFalse(userCache.getByEmail("mixed.case@example.com").isPresent());
+        assertFalse(userCache.getById(7L).isPresent());
+    }
+}
@@ -0,0 +1,100 @@
+package com.nahid.userservice.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.nahid.userservice.service.JwtService;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JitWarmupTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private JwtService jwtService;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secret", "Qw8vZ2pLr9sT1uXy4zB7cV6nP0eR5aS3dF8hJ2kL6mN1qW4tU");
+        ReflectionTestUtils.setField(jwtService, "accessTokenExpiration", 900_000L);
+        ReflectionTestUtils.setField(jwtService, "refreshTokenExpiration", 604_800_000L);
+        ReflectionTestUtils.setField(jwtService, "clockSkew", 300_000L);
+    }
+
+    @Test
+    void convergesAlthoughPasswordChecksAreSlowAndNoisy() throws Exception {
+        // stands in for PBKDF2: far slower than a round and varying by a factor of three
+        PasswordEncoder slowEncoder = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                return rawPassword.toString();
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                try {
+                    Thread.sleep(ThreadLocalRandom.current().nextLong(50, 150));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return rawPassword.toString().equals(encodedPassword);
+            }
+        };
+        // generous: it converges in a few seconds even on a single core
+        JitWarmup warmup = warmup(slowEncoder, 60_000L, 3);
+
+        warmup.run(new DefaultApplicationArguments());
+
+        Timer converged = meterRegistry.find("app.warmup").tag("outcome", "converged").timer();
+        assertNotNull(converged, "warm-up stopped at the time budget instead of converging");
+        assertEquals(1, converged.count());
+    }
+
+    @Test
+    void stopsAtTheTimeBudget() throws Exception {
+        PasswordEncoder plainEncoder = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                return rawPassword.toString();
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return rawPassword.toString().equals(encodedPassword);
+            }
+        };
+        JitWarmup warmup = warmup(plainEncoder, 300L, Integer.MAX_VALUE);
+
+        long start = System.nanoTime();
+        warmup.run(new DefaultApplicationArguments());
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // one round may overrun the budget
+        assertTrue(elapsed < 2_000, "warm-up took " + elapsed + " ms");
+        Timer timer = meterRegistry.get("app.warmup").tag("outcome", "budget").timer();
+        assertEquals(1, timer.count());
+        assertTrue(timer.totalTime(TimeUnit.MILLISECONDS) >= 300);
+    }
+
+    private JitWarmup warmup(PasswordEncoder passwordEncoder, long timeBudgetMillis, int stableRounds) {
+        JitWarmup warmup = new JitWarmup(passwordEncoder, jwtService,
+                new ObjectMapper().registerModule(new JavaTimeModule()), meterRegistry);
+        ReflectionTestUtils.setField(warmup, "enabled", true);
+        ReflectionTestUtils.setField(warmup, "timeBudgetMillis", timeBudgetMillis);
+        ReflectionTestUtils.setField(warmup, "passwordRounds", 3);
+        ReflectionTestUtils.setField(warmup, "tokensPerRound", 200);
+        ReflectionTestUtils.setField(warmup, "stableRounds", stableRounds);
+        return warmup;
+    }
+}
@@ -0,0 +1,122 @@
+package com.nahid.userservice.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledInNativeImage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The user export through MockMvc against the in-memory database: content negotiation of the encoding and
+ * the export's own async timeout.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:export;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+        "app.admin.export.timeout=1234567"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("smoke")
+@DisabledInNativeImage
+class AdminControllerTest {
+
+    private static final String ADMIN = "export.admin@example.com";
+    private static final String PASSWORD = "exportPassword123";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String adminToken;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        if (jdbcTemplate.queryForObject("SELECT count(*) FROM users WHERE email = ?", Integer.class, ADMIN) == 0) {
+            mockMvc.perform(post("/api/auth/register")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(Map.of("firstName", "Export", "lastName", "Admin",
+                                    "email", ADMIN, "password", PASSWORD))))
+                    .andExpect(status().isCreated());
+            jdbcTemplate.update("UPDATE users SET role = 'ADMIN' WHERE email = ?", ADMIN);
+        }
+        MvcResult login = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("email", ADMIN, "password", PASSWORD))))
+                .andExpect(status().isOk())
+                .andReturn();
+        adminToken = objectMapper.readTree(login.getResponse().getContentAsByteArray())
+                .get("data").get("accessToken").asText();
+    }
+
+    @Test
+    void gzipsTheExportWhenAcceptedAndRunsItWithItsOwnTimeout() throws Exception {
+        MvcResult started = export("gzip, deflate");
+        assertThat(started.getRequest().getAsyncContext().getTimeout()).isEqualTo(1234567);
+
+        MvcResult result = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn();
+        try (GZIPInputStream in = new GZIPInputStream(
+                new ByteArrayInputStream(result.getResponse().getContentAsByteArray()))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).contains(ADMIN);
+        }
+    }
+
+    @Test
+    void refusedGzipGetsPlainOutput() throws Exception {
+        MvcResult result = mockMvc.perform(asyncDispatch(export("gzip;q=0, identity")))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andReturn();
+        assertThat(result.getResponse().getContentAsString(StandardCharsets.UTF_8)).contains(ADMIN);
+    }
+
+    @Test
+    void acceptEncodingQualityValues() {
+        assertThat(AdminController.acceptsGzip(null)).isFalse();
+        assertThat(AdminController.acceptsGzip("gzip")).isTrue();
+        assertThat(AdminController.acceptsGzip("deflate, GZIP;q=0.5")).isTrue();
+        assertThat(AdminController.acceptsGzip("x-gzip")).isTrue();
+        assertThat(AdminController.acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(AdminController.acceptsGzip("gzip; q=0.000")).isFalse();
+        assertThat(AdminController.acceptsGzip("gzip;q=0, *")).isFalse();
+        assertThat(AdminController.acceptsGzip("*")).isTrue();
+        assertThat(AdminController.acceptsGzip("identity, *;q=0")).isFalse();
+        assertThat(AdminController.acceptsGzip("gzip;q=oops")).isFalse();
+        assertThat(AdminController.acceptsGzip("deflate, br")).isFalse();
+    }
+
+    private MvcResult export(String acceptEncoding) throws Exception {
+        return mockMvc.perform(get("/api/admin/users/export")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + adminToken)
+                        .header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+}
@@ -0,0 +1,149 @@
+package com.nahid.userservice.idempotency;
+
+import com.nahid.userservice.dto.request.AuthRequest;
+import com.nahid.userservice.dto.response.AuthResponse;
+import com.nahid.userservice.exception.AuthenticationException;
+import com.nahid.userservice.exception.InvalidRequestException;
+import com.nahid.userservice.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdempotencyServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final InMemoryIdempotencyStore store = new InMemoryIdempotencyStore();
+    private IdempotencyService idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(store, "maxEntries", 100);
+        idempotencyService = new IdempotencyService(store, Jackson2ObjectMapperBuilder.json().build(), meterRegistry);
+        ReflectionTestUtils.setField(idempotencyService, "enabled", true);
+        ReflectionTestUtils.setField(idempotencyService, "ttlMillis", 60_000L);
+        ReflectionTestUtils.setField(idempotencyService, "waitTimeoutMillis", 5_000L);
+        ReflectionTestUtils.setField(idempotencyService, "secret", "Qw8vZ2pLr9sT1uXy4zB7cV6nP0eR5aS3dF8hJ2kL6mN1qW4tU");
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void duplicatesWaitForTheOriginalAndLaterOnesReplayIt() throws Exception {
+        AuthRequest request = request("password123");
+        AtomicInteger logins = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<AuthResponse>> results = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            results.add(executor.submit(() -> idempotencyService.execute("key-1", "login", request,
+                    AuthResponse.class, () -> {
+                        logins.incrementAndGet();
+                        await(release);
+                        return AuthResponse.builder().accessToken("access").refreshToken("refresh").build();
+                    })));
+        }
+        while (count("joined") < 2) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+
+        for (Future<AuthResponse> result : results) {
+            assertEquals("refresh", result.get(5, TimeUnit.SECONDS).getRefreshToken());
+        }
+        assertEquals(1, logins.get());
+
+        AuthResponse replayed = idempotencyService.execute("key-1", "login", request("password123"),
+                AuthResponse.class, () -> {
+                    throw new AssertionError("logged in twice");
+                });
+        assertEquals("access", replayed.getAccessToken());
+        assertEquals(1, count("replayed"));
+    }
+
+    @Test
+    void duplicateThatWaitsTooLongIsToldToRetry() throws Exception {
+        ReflectionTestUtils.setField(idempotencyService, "waitTimeoutMillis", 50L);
+        AuthRequest request = request("password123");
+        CountDownLatch release = new CountDownLatch(1);
+        Future<AuthResponse> original = executor.submit(() -> idempotencyService.execute("key-1", "login", request,
+                AuthResponse.class, () -> {
+                    await(release);
+                    return AuthResponse.builder().accessToken("access").build();
+                }));
+        while (((Map<?, ?>) ReflectionTestUtils.getField(idempotencyService, "flights")).isEmpty()) {
+            Thread.sleep(5);
+        }
+
+        assertThrows(ServiceUnavailableException.class, () -> idempotencyService.execute("key-1", "login", request,
+                AuthResponse.class, () -> {
+                    throw new AssertionError("logged in twice");
+                }));
+        release.countDown();
+        assertEquals("access", original.get(5, TimeUnit.SECONDS).getAccessToken());
+    }
+
+    @Test
+    void keyReusedWithAnotherRequestIsRejected() {
+        idempotencyService.execute("key-1", "login", request("password123"), AuthResponse.class,
+                () -> AuthResponse.builder().accessToken("access").build());
+
+        assertThrows(InvalidRequestException.class, () -> idempotencyService.execute("key-1", "login",
+                request("guessed-password"), AuthResponse.class, () -> AuthResponse.builder().build()));
+        assertThrows(InvalidRequestException.class, () -> idempotencyService.execute("key\n", "login",
+                request("password123"), AuthResponse.class, () -> AuthResponse.builder().build()));
+    }
+
+    @Test
+    void failuresAreNotStored() {
+        AuthRequest request = request("password123");
+        assertThrows(AuthenticationException.class, () -> idempotencyService.execute("key-1", "login", request,
+                AuthResponse.class, () -> {
+                    throw new AuthenticationException("Invalid credentials");
+                }));
+
+        AuthResponse response = idempotencyService.execute("key-1", "login", request, AuthResponse.class,
+                () -> AuthResponse.builder().accessToken("access").build());
+        assertEquals("access", response.getAccessToken());
+    }
+
+    private double count(String outcome) {
+        var counter = meterRegistry.find("idempotency.requests").tag("outcome", outcome).counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private static AuthRequest request(String password) {
+        AuthRequest request = new AuthRequest();
+        request.setEmail("user@example.com");
+        request.setPassword(password);
+        return request;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
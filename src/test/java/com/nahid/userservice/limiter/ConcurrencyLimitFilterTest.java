@@ -0,0 +1,173 @@
+package com.nahid.userservice.limiter;
+
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.nahid.userservice.entity.User;
+import com.nahid.userservice.enums.Role;
+import com.nahid.userservice.security.JwtAuthenticationFilter;
+import com.nahid.userservice.service.JwtService;
+import com.nahid.userservice.util.helper.ApiResponseWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConcurrencyLimitFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private ConcurrencyLimitFilter filter;
+    private String accessToken;
+
+    @BeforeEach
+    void setUp() {
+        JwtService jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secret", "Qw8vZ2pLr9sT1uXy4zB7cV6nP0eR5aS3dF8hJ2kL6mN1qW4tU");
+        ReflectionTestUtils.setField(jwtService, "accessTokenExpiration", 900_000L);
+        ReflectionTestUtils.setField(jwtService, "clockSkew", 300_000L);
+        accessToken = jwtService.generateAccessToken(User.builder()
+                .id(1L)
+                .email("john@example.com")
+                .password("unused")
+                .role(Role.USER)
+                .build());
+
+        filter = new ConcurrencyLimitFilter(meterRegistry,
+                new ApiResponseWriter(Jackson2ObjectMapperBuilder.json()
+                        .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build()),
+                jwtService);
+        ReflectionTestUtils.setField(filter, "initialLimit", 10);
+        ReflectionTestUtils.setField(filter, "minLimit", 10);
+        ReflectionTestUtils.setField(filter, "maxLimit", 10);
+        ReflectionTestUtils.setField(filter, "rttTolerance", 1.5);
+        ReflectionTestUtils.setField(filter, "smoothing", 0.2);
+        ReflectionTestUtils.setField(filter, "windowMillis", 250L);
+        ReflectionTestUtils.setField(filter, "windowMinSamples", 10);
+        ReflectionTestUtils.setField(filter, "normalShare", 0.8);
+        ReflectionTestUtils.setField(filter, "sheddableShare", 0.5);
+        ReflectionTestUtils.setField(filter, "sheddablePaths", List.of("/api/auth/login", "/api/auth/register"));
+        ReflectionTestUtils.setField(filter, "rejectionStatus", 503);
+        filter.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shedsLoginFirstAndKeepsAuthenticatedReadsGoing() throws Exception {
+        // 5 of 10 slots busy: the sheddable share (0.5) is used up, the others are not
+        holdRequests(5, this::protectedRead);
+
+        MockHttpServletResponse login = filter(post("/api/auth/login"));
+        assertEquals(503, login.getStatus());
+        assertEquals("1", login.getHeader("Retry-After"));
+        assertTrue(login.getContentAsString().contains("\"success\":false"));
+
+        assertEquals(200, filter(post("/api/auth/refresh")).getStatus());
+        assertEquals(200, filter(protectedRead()).getStatus());
+
+        // 8 busy: normal share (0.8) used up, authenticated reads still admitted
+        holdRequests(3, this::protectedRead);
+        assertEquals(503, filter(post("/api/auth/refresh")).getStatus());
+        assertEquals(200, filter(protectedRead()).getStatus());
+
+        assertEquals(1.0, meterRegistry.get("http.concurrency.rejected").tag("priority", "sheddable").counter().count());
+        assertEquals(1.0, meterRegistry.get("http.concurrency.rejected").tag("priority", "normal").counter().count());
+        assertEquals(8.0, meterRegistry.get("http.concurrency.in_flight").gauge().value());
+    }
+
+    @Test
+    void onlyVerifiedTokensGetTheProtectedShare() throws Exception {
+        // 8 busy: normal share (0.8) used up
+        holdRequests(8, this::protectedRead);
+
+        MockHttpServletRequest forged = protectedRead();
+        forged.removeHeader("Authorization");
+        forged.addHeader("Authorization", "Bearer " + accessToken.substring(0, accessToken.length() - 4) + "AAAA");
+        assertEquals(503, filter(forged).getStatus());
+        assertEquals(503, filter(read("Bearer anything")).getStatus());
+
+        MockHttpServletRequest verified = protectedRead();
+        assertEquals(200, filter(verified).getStatus());
+        // handed on, so the JWT filter does not parse the token again
+        assertNotNull(verified.getAttribute(JwtAuthenticationFilter.VERIFIED_CLAIMS_ATTRIBUTE));
+    }
+
+    @Test
+    void healthChecksBypassTheLimit() throws Exception {
+        holdRequests(10, this::protectedRead);
+        assertEquals(503, filter(protectedRead()).getStatus());
+        assertEquals(200, filter(new MockHttpServletRequest("GET", "/actuator/health")).getStatus());
+    }
+
+    @Test
+    void asyncRequestsHoldTheirSlotUntilTheyComplete() throws Exception {
+        MockHttpServletRequest export = protectedRead();
+        export.setAsyncSupported(true);
+        filter.doFilter(export, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+        assertEquals(1.0, meterRegistry.get("http.concurrency.in_flight").gauge().value());
+
+        export.getAsyncContext().complete();
+        assertEquals(0.0, meterRegistry.get("http.concurrency.in_flight").gauge().value());
+    }
+
+    private void holdRequests(int count, Supplier<MockHttpServletRequest> request)
+            throws InterruptedException {
+        CountDownLatch entered = new CountDownLatch(count);
+        for (int i = 0; i < count; i++) {
+            executor.submit(() -> {
+                filter.doFilter(request.get(), new MockHttpServletResponse(), (req, res) -> {
+                    entered.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+                return null;
+            });
+        }
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+    }
+
+    private MockHttpServletResponse filter(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, (req, res) -> { });
+        return response;
+    }
+
+    private MockHttpServletRequest protectedRead() {
+        return read("Bearer " + accessToken);
+    }
+
+    private static MockHttpServletRequest read(String authorization) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users/me");
+        request.setServletPath("/api/users/me");
+        request.addHeader("Authorization", authorization);
+        return request;
+    }
+
+    private static MockHttpServletRequest post(String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        request.setServletPath(path);
+        return request;
+    }
+}
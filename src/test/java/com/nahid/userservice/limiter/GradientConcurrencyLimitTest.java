@@ -0,0 +1,59 @@
+package com.nahid.userservice.limiter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GradientConcurrencyLimitTest {
+
+    private static final long WINDOW = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private long now;
+
+    @Test
+    void growsWhileLatencyStaysFlatUnderLoad() {
+        GradientConcurrencyLimit limit = limit();
+        runWindows(limit, 50, 20 * MS, Integer.MAX_VALUE);
+        assertTrue(limit.limit() > 100, "limit " + limit.limit());
+    }
+
+    @Test
+    void shrinksWhenLatencyRisesAndRecovers() {
+        GradientConcurrencyLimit limit = limit();
+        runWindows(limit, 50, 20 * MS, Integer.MAX_VALUE);
+        int healthy = limit.limit();
+
+        runWindows(limit, 30, 80 * MS, Integer.MAX_VALUE);
+        int overloaded = limit.limit();
+        assertTrue(overloaded < healthy / 2, "limit " + overloaded + " after " + healthy);
+        assertTrue(overloaded >= 10);
+
+        runWindows(limit, 100, 20 * MS, Integer.MAX_VALUE);
+        assertTrue(limit.limit() > overloaded, "limit " + limit.limit() + " stayed at " + overloaded);
+    }
+
+    @Test
+    void doesNotGrowWhenTheLimitIsNotReached() {
+        GradientConcurrencyLimit limit = limit();
+        runWindows(limit, 50, 20 * MS, 20);
+        assertEquals(100, limit.limit());
+    }
+
+    private GradientConcurrencyLimit limit() {
+        return new GradientConcurrencyLimit(100, 10, 1000, 1.5, 0.2, WINDOW, 10);
+    }
+
+    // each window: 20 samples spread over the window, with in-flight at the current limit unless capped
+    private void runWindows(GradientConcurrencyLimit limit, int windows, long rtt, int inFlightCap) {
+        for (int w = 0; w < windows; w++) {
+            for (int i = 0; i < 20; i++) {
+                now += WINDOW / 19;
+                limit.onSample(now, rtt, Math.min(limit.limit(), inFlightCap));
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.nahid.userservice.repository;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Fails when a hot-path query can no longer be answered from an index, e.g. because a migration dropped
+ * the index or a repository query stopped matching it. Sequential scans are disabled for the planner, so
+ * the result does not depend on how many rows the test database happens to hold; by the same token this
+ * only proves that a usable index exists, not that the planner picks it on production data and statistics.
+ */
+@SpringBootTest(properties = "app.warmup.enabled=false")
+@Transactional
+class HotQueryPlanTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            // UserRepository.findByEmail / existsByEmail
+            "SELECT * FROM users WHERE lower(email) = lower('someone@example.com')",
+            // UserRepository.findSummariesByIdIn
+            "SELECT id, email, first_name, last_name FROM users WHERE id IN (1, 2, 3, 4)",
+            // RefreshTokenRepository.findByToken
+            "SELECT * FROM refresh_tokens WHERE token = 'token'",
+            // RefreshTokenRepository.deleteByUser
+            "DELETE FROM refresh_tokens WHERE user_id = 1",
+            // RefreshTokenRepository.deleteExpiredActiveTokens
+            "DELETE FROM refresh_tokens WHERE revoked = false AND expiry_date < now()::timestamp",
+            // RefreshTokenRepository.deleteExpiredRevokedTokens
+            "DELETE FROM refresh_tokens WHERE revoked = true AND expiry_date < now()::timestamp",
+            // RefreshTokenRepository.findActiveSessions
+            "SELECT id, created_at, expiry_date FROM refresh_tokens WHERE user_id = 1 AND revoked = false"
+                    + " AND expiry_date > now()::timestamp ORDER BY created_at DESC, id DESC LIMIT 21",
+            // RefreshTokenRepository.isSessionActive
+            "SELECT 1 FROM refresh_tokens WHERE session_id = 'session' AND revoked = false"
+                    + " AND expiry_date > now()::timestamp",
+            // TokenVersionRegistry.SELECT_CHANGED
+            "SELECT id, token_version, updated_at FROM users WHERE token_version > 0"
+                    + " AND updated_at > now()::timestamp - interval '30 seconds'"
+    })
+    void hasUsableIndex(String sql) {
+        jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+
+        String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class));
+
+        assertThat(plan).as("plan for %s", sql).doesNotContain("Seq Scan");
+    }
+}
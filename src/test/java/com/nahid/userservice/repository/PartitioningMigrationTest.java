@@ -0,0 +1,81 @@
+package com.nahid.userservice.repository;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.flywaydb.core.api.MigrationVersion;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.Map;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Switches the {@code partitioned} profile on for a database that already ran every regular migration: the
+ * partitioning migration sorts below them and has to be applied last, and leave the same table behind as
+ * on a fresh schema. Runs in a separate schema of the local Postgres database.
+ */
+class PartitioningMigrationTest {
+
+    private static final String SCHEMA = "partition_upgrade_test";
+
+    private final DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            "jdbc:postgresql://localhost:5432/postgres?currentSchema=" + SCHEMA, "alibou", "alibou");
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+    @Test
+    void partitionsAnExistingSchemaAfterItsLaterMigrations() throws Exception {
+        Flyway unpartitioned = flyway("CONCURRENTLY", false, "classpath:db/migration");
+        unpartitioned.clean();
+        unpartitioned.migrate();
+
+        jdbcTemplate.update("""
+                INSERT INTO users (account_non_expired, account_non_locked, credentials_non_expired, enabled,
+                                   email, first_name, last_name, password, role, token_version, created_at, updated_at)
+                VALUES (true, true, true, true, 'upgrade@example.com', 'Upgrade', 'Test', 'unused', 'USER', 0,
+                        now(), now())""");
+        jdbcTemplate.update("""
+                INSERT INTO refresh_tokens (created_at, expiry_date, revoked, token, user_id, session_id)
+                SELECT now(), now() + interval '7 days', false, 'existing-token', id, 'existing-session'
+                FROM users WHERE email = 'upgrade@example.com'""");
+
+        Properties profile = PropertiesLoaderUtils.loadProperties(
+                new ClassPathResource("application-partitioned.properties"));
+        Flyway partitioned = flyway(profile.getProperty("spring.flyway.placeholders.concurrently"),
+                Boolean.parseBoolean(profile.getProperty("spring.flyway.out-of-order")),
+                profile.getProperty("spring.flyway.locations").split(","));
+        assertThat(partitioned.migrate().migrationsExecuted).isEqualTo(1);
+        assertThat(partitioned.info().applied()).extracting(MigrationInfo::getVersion)
+                .contains(MigrationVersion.fromVersion("3.1"));
+
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM pg_partitioned_table WHERE partrelid = 'refresh_tokens'::regclass",
+                Integer.class)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT session_id FROM refresh_tokens WHERE token = 'existing-token'", String.class))
+                .isEqualTo("existing-session");
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT indexname FROM pg_indexes WHERE schemaname = ? AND tablename = 'refresh_tokens'",
+                String.class, SCHEMA))
+                .contains("idx_refresh_tokens_user_created", "idx_refresh_tokens_active_expiry",
+                        "idx_refresh_tokens_revoked_expiry", "idx_refresh_tokens_active_session");
+    }
+
+    private Flyway flyway(String concurrently, boolean outOfOrder, String... locations) {
+        return Flyway.configure()
+                .dataSource(dataSource)
+                .schemas(SCHEMA)
+                .defaultSchema(SCHEMA)
+                .locations(locations)
+                .placeholders(Map.of("concurrently", concurrently))
+                .outOfOrder(outOfOrder)
+                .cleanDisabled(false)
+                // as in FlywayConfig: concurrent index builds wait on a transaction-scoped lock
+                .configuration(Map.of("flyway.postgresql.transactional.lock", "false"))
+                .load();
+    }
+}
@@ -0,0 +1,97 @@
+package com.nahid.userservice.security;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BreachedPasswordCheckerTest {
+
+    private static final int CORPUS_SIZE = 50_000;
+
+    @TempDir
+    Path dir;
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void findsEveryBreachedPasswordAndNothingElse(boolean bloomFilter) throws Exception {
+        BreachedPasswordChecker checker = checker(corpus(), bloomFilter);
+        if (bloomFilter) {
+            awaitBloomFilter(checker);
+        }
+
+        for (int i = 1; i < CORPUS_SIZE; i += 97) {
+            assertTrue(checker.check("breached-" + i).isCompromised(), "breached-" + i);
+        }
+        assertTrue(checker.check("password123").isCompromised());
+        for (int i = 0; i < 1_000; i++) {
+            assertFalse(checker.check("correct horse battery staple " + i).isCompromised());
+        }
+    }
+
+    @Test
+    void disabledCheckerAcceptsEverything() {
+        BreachedPasswordChecker checker = new BreachedPasswordChecker();
+        checker.init();
+        assertFalse(checker.check("password123").isCompromised());
+    }
+
+    @Test
+    void rejectsFileThatIsNotADigestSequence() throws IOException {
+        Path file = Files.write(dir.resolve("broken.bin"), new byte[21]);
+        assertThrows(IllegalStateException.class, () -> checker(file, false));
+    }
+
+    private Path corpus() throws Exception {
+        MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
+        byte[][] digests = IntStream.range(0, CORPUS_SIZE)
+                .mapToObj(i -> i == 0 ? "password123" : "breached-" + i)
+                .map(password -> sha1.digest(password.getBytes(StandardCharsets.UTF_8)))
+                .sorted(Arrays::compareUnsigned)
+                .toArray(byte[][]::new);
+        byte[] content = new byte[digests.length * 20];
+        for (int i = 0; i < digests.length; i++) {
+            System.arraycopy(digests[i], 0, content, i * 20, 20);
+        }
+        // spot check against the HIBP hex form the file is converted from
+        assertTrue(Arrays.stream(digests).map(HexFormat.of().withUpperCase()::formatHex)
+                .anyMatch("CBFDAC6008F9CAB4083784CBD1874F76618D2A97"::equals));
+        return Files.write(dir.resolve("pwned-passwords-sha1.bin"), content);
+    }
+
+    private static BreachedPasswordChecker checker(Path file, boolean bloomFilter) {
+        BreachedPasswordChecker checker = new BreachedPasswordChecker();
+        ReflectionTestUtils.setField(checker, "enabled", true);
+        ReflectionTestUtils.setField(checker, "file", file.toString());
+        ReflectionTestUtils.setField(checker, "bloomFilterEnabled", bloomFilter);
+        ReflectionTestUtils.setField(checker, "falsePositiveRate", 0.01);
+        ReflectionTestUtils.setField(checker, "bloomFilterMaxBytes", 1L << 20);
+        checker.init();
+        return checker;
+    }
+
+    private static void awaitBloomFilter(BreachedPasswordChecker checker) throws InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            Object corpus = ReflectionTestUtils.getField(checker, "corpus");
+            if (ReflectionTestUtils.invokeMethod(corpus, "front") != null) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("Bloom filter was not built");
+    }
+}
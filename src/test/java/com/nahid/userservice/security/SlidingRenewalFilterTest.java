@@ -0,0 +1,107 @@
+package com.nahid.userservice.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledInNativeImage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Sliding renewal through the filter chain: the renewal window is longer than the access token lifetime, so
+ * every authenticated request is inside it and has to come back with a new token in the response header,
+ * as long as its session has not been logged out.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:renewal;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+        "jwt.access-token-expiration=60000",
+        "app.security.sliding-renewal.enabled=true",
+        "app.security.sliding-renewal.window=120000"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("smoke")
+@DisabledInNativeImage
+class SlidingRenewalFilterTest {
+
+    private static final String EMAIL = "renewal@example.com";
+    private static final String PASSWORD = "renewalPassword123";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        if (jdbcTemplate.queryForObject("SELECT count(*) FROM users WHERE email = ?", Integer.class, EMAIL) == 0) {
+            mockMvc.perform(post("/api/auth/register")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(json(Map.of("firstName", "Renewal", "lastName", "Test", "email", EMAIL,
+                                    "password", PASSWORD))))
+                    .andExpect(status().isCreated());
+        }
+    }
+
+    @Test
+    void renewedTokenIsSentInTheAuthorizationHeaderAndAccepted() throws Exception {
+        String token = login().get("accessToken").asText();
+
+        String renewed = mockMvc.perform(get("/api/users/me").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.AUTHORIZATION))
+                .andReturn().getResponse().getHeader(HttpHeaders.AUTHORIZATION);
+        assertThat(renewed).startsWith("Bearer ").isNotEqualTo("Bearer " + token);
+
+        mockMvc.perform(get("/api/users/me").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.AUTHORIZATION, renewed));
+        mockMvc.perform(get("/api/users/me").header(HttpHeaders.AUTHORIZATION, renewed))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void loggedOutSessionIsNotRenewed() throws Exception {
+        JsonNode tokens = login();
+        mockMvc.perform(post("/api/auth/logout")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + tokens.get("refreshToken").asText()))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/users/me")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + tokens.get("accessToken").asText()))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.AUTHORIZATION));
+    }
+
+    private JsonNode login() throws Exception {
+        MvcResult login = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of("email", EMAIL, "password", PASSWORD))))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readTree(login.getResponse().getContentAsByteArray()).get("data");
+    }
+
+    private String json(Object value) throws Exception {
+        return objectMapper.writeValueAsString(value);
+    }
+}
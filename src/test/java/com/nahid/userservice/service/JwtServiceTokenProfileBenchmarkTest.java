@@ -0,0 +1,107 @@
+package com.nahid.userservice.service;
+
+import com.nahid.userservice.entity.User;
+import com.nahid.userservice.enums.Role;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Size and throughput comparison between the legacy and the compact access-token profiles. The size
+ * reduction and parse compatibility are asserted; the throughput comparison is tagged {@code benchmark}, is
+ * left out of the default build and only logs its numbers.
+ */
+class JwtServiceTokenProfileBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(JwtServiceTokenProfileBenchmarkTest.class);
+
+    // the compact header measures 27% smaller for this user
+    private static final double MIN_SIZE_REDUCTION = 0.20;
+
+    private static final int WARMUP_ROUNDS = 5_000;
+    private static final int MEASURED_ROUNDS = 20_000;
+
+    private JwtService jwtService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secret", "Qw8vZ2pLr9sT1uXy4zB7cV6nP0eR5aS3dF8hJ2kL6mN1qW4tU");
+        ReflectionTestUtils.setField(jwtService, "accessTokenExpiration", 900_000L);
+        ReflectionTestUtils.setField(jwtService, "refreshTokenExpiration", 604_800_000L);
+        ReflectionTestUtils.setField(jwtService, "clockSkew", 300_000L);
+
+        user = User.builder()
+                .id(123_456L)
+                .email("john.doe.with.a.long.address@example.com")
+                .password("unused")
+                .firstName("John")
+                .lastName("Doe")
+                .role(Role.USER)
+                .build();
+    }
+
+    @Test
+    void compactProfileIsSmallerAndBothProfilesParse() {
+        String legacy = jwtService.generateAccessToken(user);
+        String compact = jwtService.generateCompactAccessToken(user);
+
+        int legacyBytes = headerBytes(legacy);
+        int compactBytes = headerBytes(compact);
+        double reduction = (double) (legacyBytes - compactBytes) / legacyBytes;
+        assertTrue(reduction >= MIN_SIZE_REDUCTION, String.format(
+                "Authorization header: legacy=%d bytes, compact=%d bytes, %.1f%% smaller, expected at least %.0f%%",
+                legacyBytes, compactBytes, 100 * reduction, 100 * MIN_SIZE_REDUCTION));
+
+        Claims legacyClaims = jwtService.extractAllClaims(legacy);
+        Claims compactClaims = jwtService.extractAllClaims(compact);
+        assertTrue(jwtService.isTokenValid(legacyClaims, user));
+        assertTrue(jwtService.isTokenValid(compactClaims, user));
+        assertEquals("123456", compactClaims.getSubject());
+        assertEquals(Role.USER.mask(), compactClaims.get(JwtService.COMPACT_ROLE_CLAIM, Integer.class));
+    }
+
+    @Test
+    @Tag("benchmark")
+    void throughput() {
+        String legacy = jwtService.generateAccessToken(user);
+        String compact = jwtService.generateCompactAccessToken(user);
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            jwtService.generateAccessToken(user);
+            jwtService.generateCompactAccessToken(user);
+            jwtService.extractAllClaims(legacy);
+            jwtService.extractAllClaims(compact);
+        }
+
+        long legacySign = time(() -> jwtService.generateAccessToken(user));
+        long compactSign = time(() -> jwtService.generateCompactAccessToken(user));
+        long legacyParse = time(() -> jwtService.extractAllClaims(legacy));
+        long compactParse = time(() -> jwtService.extractAllClaims(compact));
+
+        log.info("sign : legacy={} ns/op, compact={} ns/op", legacySign, compactSign);
+        log.info("parse: legacy={} ns/op, compact={} ns/op", legacyParse, compactParse);
+    }
+
+    private static long time(Runnable op) {
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            op.run();
+        }
+        return (System.nanoTime() - start) / MEASURED_ROUNDS;
+    }
+
+    private static int headerBytes(String token) {
+        return ("Bearer " + token).getBytes(StandardCharsets.US_ASCII).length;
+    }
+}
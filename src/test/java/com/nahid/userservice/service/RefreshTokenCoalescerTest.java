@@ -0,0 +1,147 @@
+package com.nahid.userservice.service;
+
+import com.nahid.userservice.dto.response.AuthResponse;
+import com.nahid.userservice.exception.AuthenticationException;
+import com.nahid.userservice.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RefreshTokenCoalescerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private RefreshTokenCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        coalescer = new RefreshTokenCoalescer(meterRegistry);
+        ReflectionTestUtils.setField(coalescer, "enabled", true);
+        ReflectionTestUtils.setField(coalescer, "gracePeriodMillis", 10_000L);
+        ReflectionTestUtils.setField(coalescer, "waitTimeoutMillis", 5_000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentDuplicatesShareOneRotation() throws Exception {
+        AtomicInteger rotations = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<AuthResponse>> results = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            results.add(executor.submit(() -> coalescer.rotate("old-token", () -> {
+                rotations.incrementAndGet();
+                await(release);
+                return AuthResponse.builder().refreshToken("new-token").build();
+            })));
+        }
+        // the followers block on the leader's flight, so wait until both have joined it
+        while (meterRegistry.get("refresh_token.coalesced").counter().count() < 2) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+
+        AuthResponse first = results.get(0).get(5, TimeUnit.SECONDS);
+        for (Future<AuthResponse> result : results) {
+            assertSame(first, result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, rotations.get());
+
+        // a late duplicate within the grace period still gets the same pair
+        assertSame(first, coalescer.rotate("old-token", () -> {
+            throw new AssertionError("rotated twice");
+        }));
+    }
+
+    @Test
+    void failuresAreNotRemembered() {
+        assertThrows(AuthenticationException.class, () -> coalescer.rotate("old-token", () -> {
+            throw new AuthenticationException("Invalid refresh token");
+        }));
+
+        AuthResponse response = coalescer.rotate("old-token",
+                () -> AuthResponse.builder().refreshToken("new-token").build());
+        assertEquals("new-token", response.getRefreshToken());
+    }
+
+    @Test
+    void followerThatWaitsTooLongIsToldToRetry() throws Exception {
+        ReflectionTestUtils.setField(coalescer, "waitTimeoutMillis", 50L);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<AuthResponse> leader = executor.submit(() -> coalescer.rotate("old-token", () -> {
+            await(release);
+            return AuthResponse.builder().refreshToken("new-token").build();
+        }));
+        while (((Map<?, ?>) ReflectionTestUtils.getField(coalescer, "flights")).isEmpty()) {
+            Thread.sleep(5);
+        }
+
+        assertThrows(ServiceUnavailableException.class, () -> coalescer.rotate("old-token", () -> {
+            throw new AssertionError("rotated twice");
+        }));
+        release.countDown();
+        assertEquals("new-token", leader.get(5, TimeUnit.SECONDS).getRefreshToken());
+    }
+
+    @Test
+    void rotationsRolledBackWithTheCallersTransactionAreNotRemembered() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            coalescer.rotate("old-token", () -> AuthResponse.builder().refreshToken("rolled-back").build());
+            TransactionSynchronizationUtils.invokeAfterCompletion(
+                    TransactionSynchronizationManager.getSynchronizations(), TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        AuthResponse response = coalescer.rotate("old-token",
+                () -> AuthResponse.builder().refreshToken("new-token").build());
+        assertEquals("new-token", response.getRefreshToken());
+    }
+
+    @Test
+    void expiredFlightsAreRotatedAgain() throws InterruptedException {
+        ReflectionTestUtils.setField(coalescer, "gracePeriodMillis", 0L);
+        AuthResponse first = coalescer.rotate("old-token", () -> AuthResponse.builder().build());
+        Thread.sleep(2);
+        AuthResponse second = coalescer.rotate("old-token", () -> AuthResponse.builder().build());
+        assertNotSame(first, second);
+
+        Thread.sleep(2);
+        coalescer.evictExpired();
+        assertTrue(((Map<?, ?>) ReflectionTestUtils.getField(coalescer, "flights")).isEmpty());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.nahid.userservice.service;
+
+import com.nahid.userservice.dto.request.AuthRequest;
+import com.nahid.userservice.dto.response.AuthResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Issues refresh tokens through the group commit against a separate schema of the local Postgres database,
+ * with the issuing transaction committed or rolled back by the caller.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:postgresql://localhost:5432/postgres?currentSchema=group_commit_test",
+        "spring.flyway.default-schema=group_commit_test",
+        "spring.flyway.schemas=group_commit_test",
+        "app.cache.invalidation.enabled=false",
+        "app.warmup.enabled=false",
+        "app.refresh-token.group-commit.enabled=true",
+        "app.session.max-active-per-user=2"
+})
+class RefreshTokenGroupCommitTest {
+
+    private static final String EMAIL = "group.commit@example.com";
+    private static final String PASSWORD = "password123";
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM refresh_tokens");
+        // the user is kept across tests: the user cache would still hold it under its old id
+        jdbcTemplate.update("""
+                INSERT INTO users (account_non_expired, account_non_locked, credentials_non_expired, enabled,
+                                   email, first_name, last_name, password, role, token_version, created_at, updated_at)
+                SELECT true, true, true, true, ?, 'Group', 'Commit', ?, 'USER', 0, now(), now()
+                WHERE NOT EXISTS (SELECT 1 FROM users WHERE email = ?)""",
+                EMAIL, passwordEncoder.encode(PASSWORD), EMAIL);
+    }
+
+    @Test
+    void storesTheTokenOnceTheLoginCommits() {
+        AuthResponse response = authService.login(request());
+
+        assertThat(tokens()).containsExactly(response.getRefreshToken());
+    }
+
+    @Test
+    void storesNothingWhenTheCallerRollsBackTheLogin() {
+        transactionTemplate.executeWithoutResult(status -> {
+            authService.login(request());
+            status.setRollbackOnly();
+        });
+
+        assertThat(tokens()).isEmpty();
+    }
+
+    @Test
+    void rolledBackRefreshKeepsTheOldTokenOnly() {
+        String original = authService.login(request()).getRefreshToken();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            authService.refreshToken("Bearer " + original);
+            status.setRollbackOnly();
+        });
+        assertThat(tokens()).containsExactly(original);
+
+        String rotated = authService.refreshToken("Bearer " + original).getRefreshToken();
+        assertThat(tokens()).containsExactly(rotated);
+    }
+
+    @Test
+    void sessionCapCountsTheTokenStillToBeWritten() {
+        authService.login(request());
+        String second = authService.login(request()).getRefreshToken();
+        String third = authService.login(request()).getRefreshToken();
+
+        assertThat(tokens()).containsExactlyInAnyOrder(second, third);
+    }
+
+    private List<String> tokens() {
+        return jdbcTemplate.queryForList("SELECT token FROM refresh_tokens", String.class);
+    }
+
+    private static AuthRequest request() {
+        AuthRequest request = new AuthRequest();
+        request.setEmail(EMAIL);
+        request.setPassword(PASSWORD);
+        return request;
+    }
+}
@@ -0,0 +1,89 @@
+package com.nahid.userservice.service;
+
+import com.nahid.userservice.entity.RefreshToken;
+import com.nahid.userservice.entity.User;
+import com.nahid.userservice.repository.RefreshTokenRepository;
+import com.nahid.userservice.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs the partitioning migration in a separate schema of the local Postgres database.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:postgresql://localhost:5432/postgres?currentSchema=partition_test",
+        "spring.flyway.default-schema=partition_test",
+        "spring.flyway.schemas=partition_test",
+        "app.cache.invalidation.enabled=false",
+        "app.warmup.enabled=false"
+})
+@ActiveProfiles("partitioned")
+class RefreshTokenPartitionManagerTest {
+
+    @Autowired
+    private RefreshTokenPartitionManager partitionManager;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void createsPartitionsAheadAndDropsExpiredOnes() {
+        LocalDate today = LocalDate.now();
+        partitionManager.ensurePartitions(today.minusDays(3));
+        assertThat(partitionExists(today.minusDays(3))).isTrue();
+        assertThat(partitionExists(today.plusDays(14))).isTrue();
+
+        User user = userRepository.save(User.builder()
+                .email(UUID.randomUUID() + "@example.com").password("secret123")
+                .firstName("Partition").lastName("Test").build());
+        RefreshToken expired = save(user, today.minusDays(3).atTime(12, 0));
+        RefreshToken active = save(user, LocalDateTime.now().plusDays(5));
+
+        assertThat(partitionManager.dropExpiredPartitions(today)).isGreaterThanOrEqualTo(3);
+
+        assertThat(partitionExists(today.minusDays(1))).isFalse();
+        assertThat(partitionExists(today)).isTrue();
+        assertThat(refreshTokenRepository.findByToken(expired.getToken())).isEmpty();
+        assertThat(refreshTokenRepository.findByToken(active.getToken())).isPresent();
+    }
+
+    @Test
+    void rejectsDuplicateTokens() {
+        User user = userRepository.save(User.builder()
+                .email(UUID.randomUUID() + "@example.com").password("secret123")
+                .firstName("Partition").lastName("Test").build());
+        RefreshToken token = save(user, LocalDateTime.now().plusDays(2));
+
+        assertThatThrownBy(() -> refreshTokenRepository.saveAndFlush(RefreshToken.builder()
+                .token(token.getToken()).user(user).expiryDate(token.getExpiryDate()).build()))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    private RefreshToken save(User user, LocalDateTime expiryDate) {
+        return refreshTokenRepository.save(RefreshToken.builder()
+                .token(UUID.randomUUID().toString()).user(user).expiryDate(expiryDate).build());
+    }
+
+    private boolean partitionExists(LocalDate day) {
+        String name = "refresh_tokens_p" + day.toString().replace("-", "");
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT to_regclass(?) IS NOT NULL", Boolean.class, name));
+    }
+}
@@ -0,0 +1,99 @@
+package com.nahid.userservice.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nahid.userservice.enums.ExportFormat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Exports a separate schema of the local Postgres database holding a known set of users.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:postgresql://localhost:5432/postgres?currentSchema=export_test",
+        "spring.flyway.default-schema=export_test",
+        "spring.flyway.schemas=export_test",
+        "app.cache.invalidation.enabled=false",
+        "app.warmup.enabled=false",
+        "app.admin.export.page-size=100"
+})
+class UserExportServiceTest {
+
+    private static final int USERS = 250;
+
+    @Autowired
+    private UserExportService userExportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM refresh_tokens");
+        jdbcTemplate.update("DELETE FROM users");
+        jdbcTemplate.update("""
+                INSERT INTO users (account_non_expired, account_non_locked, credentials_non_expired, enabled,
+                                   email, first_name, last_name, password, role, created_at, updated_at)
+                SELECT true, true, true, true, 'user' || i || '@example.com', 'First' || i, 'Last, ' || i,
+                       'hash', 'USER', now(), now()
+                FROM generate_series(1, ?) AS i""", USERS);
+        jdbcTemplate.update("UPDATE users SET first_name = '=HYPERLINK(\"x\")' WHERE email = 'user1@example.com'");
+    }
+
+    @Test
+    void exportsEveryUserAsNdjsonAcrossPages() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertThat(userExportService.export(ExportFormat.NDJSON, out)).isEqualTo(USERS);
+
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(lines).hasSize(USERS);
+        long previousId = 0;
+        for (String line : lines) {
+            JsonNode user = objectMapper.readTree(line);
+            assertThat(user.get("id").asLong()).isGreaterThan(previousId);
+            assertThat(user.has("password")).isFalse();
+            previousId = user.get("id").asLong();
+        }
+    }
+
+    @Test
+    void exportsCsvWithQuotingAndFormulaGuard() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        userExportService.export(ExportFormat.CSV, out);
+
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(lines).hasSize(USERS + 1);
+        assertThat(lines.get(0)).isEqualTo("id,email,firstName,lastName,role,enabled,createdAt,updatedAt");
+        assertThat(lines.get(1)).contains(",user1@example.com,\"'=HYPERLINK(\"\"x\"\")\",\"Last, 1\",USER,true,");
+    }
+
+    @Test
+    void stopsQuietlyWhenTheClientGoesAway() {
+        OutputStream disconnected = new OutputStream() {
+            private int written;
+
+            @Override
+            public void write(int b) throws IOException {
+                if (++written > 1000) {
+                    throw new IOException("Broken pipe");
+                }
+            }
+        };
+
+        assertThat(userExportService.export(ExportFormat.NDJSON, disconnected)).isLessThan(USERS);
+    }
+}
@@ -0,0 +1,106 @@
+package com.nahid.userservice.util.helper;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.nahid.userservice.dto.response.ApiResponse;
+import com.nahid.userservice.util.contant.ExceptionMessageConstant;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+/**
+ * Byte-for-byte comparison of {@link ApiResponseWriter} with Jackson serializing the envelope from
+ * {@link ApiResponseUtil}, and a throughput comparison of the two that runs only with {@code -Pbenchmark}.
+ * Numbers are logged for the README; only the equivalence is asserted.
+ */
+class ApiResponseWriterBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ApiResponseWriterBenchmarkTest.class);
+
+    private static final int WARMUP_ROUNDS = 20_000;
+    private static final int MEASURED_ROUNDS = 200_000;
+
+    // dates as ISO-8601 strings, as Spring Boot configures the application's mapper
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    private final ApiResponseWriter apiResponseWriter = new ApiResponseWriter(objectMapper);
+
+    @Test
+    void writesTheSameBytesAsJackson() throws Exception {
+        for (Instant timestamp : new Instant[]{
+                Instant.parse("2024-03-01T10:15:30Z"),
+                Instant.parse("2024-03-01T10:15:30.120Z"),
+                Instant.parse("2024-03-01T10:15:30.000120Z"),
+                Instant.parse("2024-03-01T10:15:30.123456789Z"),
+                Instant.now()}) {
+            for (String message : new String[]{
+                    ExceptionMessageConstant.INVALID_CREDENTIALS,
+                    ExceptionMessageConstant.SERVICE_OVERLOADED,
+                    String.format(ExceptionMessageConstant.ENTITY_NOT_FOUND_BY_ID, "User", 42)}) {
+                assertArrayEquals(
+                        objectMapper.writeValueAsBytes(envelope(message, HttpStatus.UNAUTHORIZED, timestamp, null)),
+                        apiResponseWriter.failureBody(message, HttpStatus.UNAUTHORIZED.value(), timestamp),
+                        message + " at " + timestamp);
+            }
+        }
+
+        Map<String, String> fieldErrors = Map.of("email", "must be a well-formed email address");
+        byte[] actual = apiResponseWriter.failure(ExceptionMessageConstant.VALIDATION_FAILED, HttpStatus.BAD_REQUEST,
+                fieldErrors).getBody();
+        ApiResponse<?> written = objectMapper.readValue(actual, ApiResponse.class);
+        assertArrayEquals(
+                objectMapper.writeValueAsBytes(envelope(ExceptionMessageConstant.VALIDATION_FAILED,
+                        HttpStatus.BAD_REQUEST, written.getTimestamp(), fieldErrors)),
+                actual);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void throughput() throws Exception {
+        String message = ExceptionMessageConstant.INVALID_CREDENTIALS;
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            jackson(message);
+            apiResponseWriter.failureBody(message, HttpStatus.UNAUTHORIZED.value());
+        }
+
+        long jackson = time(() -> jackson(message));
+        long template = time(() -> apiResponseWriter.failureBody(message, HttpStatus.UNAUTHORIZED.value()));
+        log.info("constant failure body: jackson={} ns/op, template={} ns/op", jackson, template);
+    }
+
+    private byte[] jackson(String message) {
+        try {
+            return objectMapper.writeValueAsBytes(
+                    ApiResponseUtil.failureWithHttpStatus(message, HttpStatus.UNAUTHORIZED).getBody());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static ApiResponse<Object> envelope(String message, HttpStatus status, Instant timestamp, Object data) {
+        return ApiResponse.builder()
+                .success(false)
+                .message(message)
+                .data(data)
+                .statusCode(status.value())
+                .timestamp(timestamp)
+                .build();
+    }
+
+    private static long time(Runnable op) {
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            op.run();
+        }
+        return (System.nanoTime() - start) / MEASURED_ROUNDS;
+    }
+}